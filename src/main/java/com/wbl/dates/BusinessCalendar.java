@@ -0,0 +1,173 @@
+package com.wbl.dates;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Working days: the days of the week outside the weekend, less a set of holidays. Answers date arithmetic in
+ * working days without stepping through the days in between.
+ *
+ * <p>Every date is given an index among the days of the week that are worked, by whole weeks and a table for the
+ * days of the week, so weekdays are counted and found in O(1). The holidays falling on those days are kept as a
+ * sorted array of their indexes; a working day's index among working days is its weekday index less the holidays
+ * before it, found by binary search, so every method runs in O(log h) for h holidays.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public final class BusinessCalendar {
+
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int MONDAY_SHIFT = 3;       // 1970-01-01, epoch day 0, was a Thursday
+
+    private final Set<DayOfWeek> weekend;
+    private final int workingDaysPerWeek;
+    private final int[] workedBefore;                // workedBefore[d] is the days worked in a week before day d
+    private final int[] workedDays;                  // workedDays[k] is the day of the week of the k-th day worked
+    private final long[] holidays;                   // weekday indexes of the holidays on days worked, ascending
+
+    /**
+     * Constructor for a calendar with Saturday and Sunday off.
+     *
+     * @param holidays dates not worked
+     */
+    public BusinessCalendar(Collection<LocalDate> holidays) {
+        this(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), holidays);
+    }
+
+    /**
+     * Parameterized Constructor.
+     *
+     * @param weekend  days of the week not worked
+     * @param holidays dates not worked
+     * @throws IllegalArgumentException if no day of the week is worked
+     */
+    public BusinessCalendar(Set<DayOfWeek> weekend, Collection<LocalDate> holidays) {
+        this.weekend = weekend.isEmpty()
+                ? Collections.unmodifiableSet(EnumSet.noneOf(DayOfWeek.class))
+                : Collections.unmodifiableSet(EnumSet.copyOf(weekend));
+        this.workingDaysPerWeek = DAYS_PER_WEEK - this.weekend.size();
+        if (workingDaysPerWeek == 0) {
+            throw new IllegalArgumentException("A week needs a working day");
+        }
+        workedBefore = new int[DAYS_PER_WEEK + 1];
+        workedDays = new int[workingDaysPerWeek];
+        for (DayOfWeek day : DayOfWeek.values()) {
+            boolean worked = !this.weekend.contains(day);
+            if (worked) {
+                workedDays[workedBefore[day.ordinal()]] = day.ordinal();
+            }
+            workedBefore[day.ordinal() + 1] = workedBefore[day.ordinal()] + (worked ? 1 : 0);
+        }
+        this.holidays = holidays.stream()
+                .filter(date -> !this.weekend.contains(date.getDayOfWeek()))
+                .mapToLong(date -> weekdayIndex(date.toEpochDay()))
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    public Set<DayOfWeek> getWeekend() {
+        return weekend;
+    }
+
+    /**
+     * Method to tell whether a date is worked.
+     *
+     * @param date Date
+     * @return true unless the date falls on the weekend or is a holiday
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return !weekend.contains(date.getDayOfWeek()) && !isHoliday(weekdayIndex(date.toEpochDay()));
+    }
+
+    /**
+     * Method to count the working days from one date up to another, as ChronoUnit.DAYS.between counts days:
+     * the first date is counted and the second is not.
+     *
+     * @param from first date
+     * @param to   date after the last
+     * @return the number of working days, negative if to is before from
+     */
+    public long workingDaysBetween(LocalDate from, LocalDate to) {
+        return workingDaysBefore(to.toEpochDay()) - workingDaysBefore(from.toEpochDay());
+    }
+
+    /**
+     * Method to find the date a number of working days after another, for example a due date. The date itself is
+     * not counted, so adding one working day to a Friday before a normal weekend gives the Monday.
+     *
+     * @param date        Date
+     * @param workingDays working days to add, subtracted when negative
+     * @return the date itself when workingDays is 0, else the working day that many working days away
+     */
+    public LocalDate addWorkingDays(LocalDate date, long workingDays) {
+        if (workingDays == 0) {
+            return date;
+        }
+        long epochDay = date.toEpochDay();
+        long index = workingDays > 0
+                ? workingDaysBefore(epochDay + 1) + workingDays - 1
+                : workingDaysBefore(epochDay) + workingDays;
+        return LocalDate.ofEpochDay(workingDayAt(index));
+    }
+
+    // index among the days of the week worked of the first such day on or after the epoch day
+    private long weekdayIndex(long epochDay) {
+        long day = epochDay + MONDAY_SHIFT;
+        return Math.floorDiv(day, DAYS_PER_WEEK) * workingDaysPerWeek
+                + workedBefore[(int) Math.floorMod(day, DAYS_PER_WEEK)];
+    }
+
+    // epoch day of the day of the week worked with the given index
+    private long epochDayOf(long weekdayIndex) {
+        return Math.floorDiv(weekdayIndex, workingDaysPerWeek) * DAYS_PER_WEEK
+                + workedDays[(int) Math.floorMod(weekdayIndex, workingDaysPerWeek)] - MONDAY_SHIFT;
+    }
+
+    // working days before the epoch day, counted from an arbitrary origin
+    long workingDaysBefore(long epochDay) {
+        long weekdays = weekdayIndex(epochDay);
+        return weekdays - holidaysBefore(weekdays);
+    }
+
+    // epoch day of the working day with the given index, the inverse of workingDaysBefore
+    long workingDayAt(long index) {
+        // the i-th holiday has holidays[i] - i working days before it, which never decreases with i, so the
+        // holidays before the working day are those with at most index working days before them
+        int low = 0;
+        int high = holidays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (holidays[mid] - mid <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return epochDayOf(index + low);
+    }
+
+    private int holidaysBefore(long weekdayIndex) {
+        int low = 0;
+        int high = holidays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (holidays[mid] < weekdayIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean isHoliday(long weekdayIndex) {
+        int position = holidaysBefore(weekdayIndex);
+        return position < holidays.length && holidays[position] == weekdayIndex;
+    }
+}
@@ -0,0 +1,412 @@
+package com.wbl.dates;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Minute-resolution view of a Calendar's availability, one bitmap of 1440 bits per day.
+ *
+ * <p>Bit m of a day stands for the wall-clock minute starting m minutes after midnight in the calendar's zone.
+ * A minute is free if it lies wholly inside a work period and no event touches it. Work and event minutes are
+ * kept in separate bitmaps, so the view follows work periods and events added later through the calendar's add
+ * methods; changes made directly to the calendar's public sets are not seen.</p>
+ *
+ * <p>Free minutes of a day are returned as a long[] of {@value #WORDS_PER_DAY} words, minute m in bit m % 64 of
+ * word m / 64, so that the availability of many calendars can be combined a word at a time with
+ * {@link #intersect} and {@link #union}, and searched with {@link #firstFreeRun}.</p>
+ *
+ * <p>The calendar holds on to a bitmap that follows it, and marks it on every add, until the bitmap is detached;
+ * detach bitmaps that are no longer needed. Recurring events are kept as rules, and their occurrences marked on a
+ * day with work time when the day is first read after the rule is added, so a rule running on for years costs
+ * nothing for the days never read. Marking and reading lock on the bitmap, so it may be read on other threads
+ * than the one adding to the calendar.</p>
+ */
+public final class BusyBitmap {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int WORDS_PER_DAY = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    private final ZoneId zone;
+    // days[i] holds the day firstEpochDay + i, null if never marked: its work minutes in the first WORDS_PER_DAY
+    // words, then its busy minutes
+    private long[][] days = new long[0][];
+    private int[] rulesMarked = new int[0];          // rulesMarked[i] is how many rules are marked on days[i]
+    private long firstEpochDay;
+    private final List<RecurringEvent> recurringEvents = new ArrayList<>();
+    private LongConsumer dayChanged = epochDay -> { };
+    private Calendar calendar;                       // followed until detached, then null
+    private CalendarListener listener;
+
+    private BusyBitmap(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Method to build the bitmap of a Calendar, whose events are shown in the given zone.
+     * The bitmap is updated as work periods and events are added to the calendar, until it is detached.
+     *
+     * @param calendar Calendar
+     * @param zone     Zone
+     * @return BusyBitmap
+     */
+    public static BusyBitmap of(Calendar calendar, ZoneId zone) {
+        BusyBitmap bitmap = new BusyBitmap(zone);
+        bitmap.calendar = calendar;
+        bitmap.listener = new CalendarListener() {
+            @Override
+            public void workPeriodAdded(WorkPeriod period) {
+                bitmap.markWorking(period);
+            }
+
+            @Override
+            public void eventAdded(Event event) {
+                bitmap.markBusy(event);
+            }
+
+            @Override
+            public void recurringEventAdded(RecurringEvent recurring) {
+                bitmap.addRecurringEvent(recurring);
+            }
+        };
+        // listening first means nothing added meanwhile is missed; marking twice changes nothing
+        calendar.addListener(bitmap.listener);
+        for (WorkPeriod period : calendar.allWorkPeriods()) {
+            bitmap.markWorking(period);
+        }
+        for (Event event : calendar.events) {
+            bitmap.markBusy(event);
+        }
+        calendar.recurringEvents().forEach(bitmap::addRecurringEvent);
+        return bitmap;
+    }
+
+    /**
+     * Method to stop following the calendar, so that the calendar no longer holds on to the bitmap or marks it.
+     * The bitmap keeps the work periods and events added before. Detaching twice does nothing.
+     */
+    public synchronized void detach() {
+        if (calendar != null) {
+            calendar.removeListener(listener);
+            calendar = null;
+            listener = null;
+        }
+    }
+
+    public boolean isFree(LocalDateTime time) {
+        return isFree(time.toLocalDate(), time.toLocalTime());
+    }
+
+    /**
+     * Method to tell whether the minute starting at the given time is free.
+     *
+     * @param date Date
+     * @param time Time, taken to the minute
+     * @return true if the minute is free
+     */
+    public synchronized boolean isFree(LocalDate date, LocalTime time) {
+        long[] day = day(date);
+        if (day == null) {
+            return false;
+        }
+        int minute = minuteOfDay(time);
+        long bit = 1L << minute;
+        return (day[minute >>> 6] & ~day[WORDS_PER_DAY + (minute >>> 6)] & bit) != 0;
+    }
+
+    /**
+     * Method to get the free minutes of a day.
+     *
+     * @param date Date
+     * @return a new bitmap of {@value #WORDS_PER_DAY} words with a bit set for each free minute
+     */
+    public synchronized long[] freeMinutes(LocalDate date) {
+        long[] free = new long[WORDS_PER_DAY];
+        long[] day = day(date);
+        if (day != null) {
+            for (int i = 0; i < WORDS_PER_DAY; i++) {
+                free[i] = day[i] & ~day[WORDS_PER_DAY + i];
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Method to find the first time on a day from which the calendar is free for a number of minutes.
+     *
+     * @param date    Date
+     * @param minutes length of the free time wanted
+     * @return start of the first free run that long, or empty if there is none
+     */
+    public Optional<LocalTime> firstFreeRun(LocalDate date, int minutes) {
+        int start = firstFreeRun(freeMinutes(date), minutes);
+        return start < 0 ? Optional.empty() : Optional.of(LocalTime.MIN.plusMinutes(start));
+    }
+
+    /**
+     * Method to find the minutes at which all the calendars are free on a day.
+     *
+     * @param bitmaps BusyBitmaps
+     * @param date    Date
+     * @return bitmap of the minutes free in every calendar
+     */
+    public static long[] intersect(Collection<BusyBitmap> bitmaps, LocalDate date) {
+        long[] free = new long[WORDS_PER_DAY];
+        Arrays.fill(free, -1L);
+        for (BusyBitmap bitmap : bitmaps) {
+            synchronized (bitmap) {
+                long[] day = bitmap.day(date);
+                if (day == null) {
+                    return new long[WORDS_PER_DAY];
+                }
+                for (int i = 0; i < WORDS_PER_DAY; i++) {
+                    free[i] &= day[i] & ~day[WORDS_PER_DAY + i];
+                }
+            }
+        }
+        free[WORDS_PER_DAY - 1] &= lastWordMask();
+        return free;
+    }
+
+    /**
+     * Method to find the minutes at which at least one of the calendars is free on a day.
+     *
+     * @param bitmaps BusyBitmaps
+     * @param date    Date
+     * @return bitmap of the minutes free in any calendar
+     */
+    public static long[] union(Collection<BusyBitmap> bitmaps, LocalDate date) {
+        long[] free = new long[WORDS_PER_DAY];
+        for (BusyBitmap bitmap : bitmaps) {
+            synchronized (bitmap) {
+                long[] day = bitmap.day(date);
+                if (day != null) {
+                    for (int i = 0; i < WORDS_PER_DAY; i++) {
+                        free[i] |= day[i] & ~day[WORDS_PER_DAY + i];
+                    }
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Method to find the first run of set bits of a given length in a day's bitmap.
+     *
+     * @param free    bitmap of {@value #WORDS_PER_DAY} words
+     * @param minutes length of the run wanted
+     * @return minute of the day the run starts at, or -1 if there is none
+     */
+    public static int firstFreeRun(long[] free, int minutes) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Run must be at least one minute: " + minutes);
+        }
+        int start = nextSetBit(free, 0);
+        while (start >= 0) {
+            int end = nextClearBit(free, start);
+            if (end - start >= minutes) {
+                return start;
+            }
+            start = nextSetBit(free, end);
+        }
+        return -1;
+    }
+
+    // only whole minutes inside the period count as working
+    private void markWorking(WorkPeriod period) {
+        mark(period.getStartTime(), period.getEndTime(), true, false);
+    }
+
+    // any minute the event touches counts as busy
+    private void markBusy(Event event) {
+        mark(event.getLocalStartDateTime(zone), event.getLocalEndDateTime(zone), false, true);
+    }
+
+    private synchronized void mark(LocalDateTime start, LocalDateTime end, boolean inward, boolean busy) {
+        LocalDate lastDate = end.toLocalDate();
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(lastDate); date = date.plusDays(1)) {
+            int from = firstMinute(date, start, inward);
+            int to = endMinute(date, end, inward);
+            if (from < to) {
+                long[] day = createDay(date);
+                setRange(day, busy ? WORDS_PER_DAY : 0, from, to);
+                dayChanged.accept(date.toEpochDay());
+            }
+        }
+    }
+
+    // the rule is marked on each day as it is read; busy minutes only matter on days with work time
+    private synchronized void addRecurringEvent(RecurringEvent recurring) {
+        if (!recurringEvents.contains(recurring)) {
+            recurringEvents.add(recurring);
+        }
+    }
+
+    // marks the occurrences of the rules not yet marked on the day; events are at most 24 hours long, so only
+    // those starting less than that before the day can reach it
+    private void markRecurring(LocalDate date, long[] day) {
+        long start = date.atStartOfDay(zone).toEpochSecond() - Duration.ofDays(1).getSeconds();
+        long end = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+        int index = (int) (date.toEpochDay() - firstEpochDay);
+        for (int i = rulesMarked[index]; i < recurringEvents.size(); i++) {
+            RecurringEvent recurring = recurringEvents.get(i);
+            Event occurrence = recurring.ceiling(start);
+            for (; occurrence != null && occurrence.getStartSecond() < end;
+                 occurrence = recurring.ceiling(occurrence.getStartSecond() + 1)) {
+                int from = firstMinute(date, occurrence.getLocalStartDateTime(zone), false);
+                int to = endMinute(date, occurrence.getLocalEndDateTime(zone), false);
+                if (from < to) {
+                    setRange(day, WORDS_PER_DAY, from, to);
+                }
+            }
+        }
+        rulesMarked[index] = recurringEvents.size();
+    }
+
+    // minute of the date the marking of a stretch from start begins at
+    private static int firstMinute(LocalDate date, LocalDateTime start, boolean inward) {
+        if (start.toLocalDate().isBefore(date)) {
+            return 0;
+        }
+        return start.toLocalDate().equals(date) ? roundedMinute(start.toLocalTime(), inward) : MINUTES_PER_DAY;
+    }
+
+    // minute of the date the marking of a stretch up to end stops before
+    private static int endMinute(LocalDate date, LocalDateTime end, boolean inward) {
+        if (end.toLocalDate().isAfter(date)) {
+            return MINUTES_PER_DAY;
+        }
+        return end.toLocalDate().equals(date) ? roundedMinute(end.toLocalTime(), !inward) : 0;
+    }
+
+    // recurring events known to the bitmap, for CapacityIndex to see when one is added
+    int recurringEventCount() {
+        return recurringEvents.size();
+    }
+
+    private long[] day(LocalDate date) {
+        return dayWords(date.toEpochDay());
+    }
+
+    // work then busy words of a day, null if nothing was ever marked on it, with the occurrences of recurring events
+    // marked; callers hold the lock on the bitmap
+    long[] dayWords(long epochDay) {
+        long index = epochDay - firstEpochDay;
+        if (index < 0 || index >= days.length || days[(int) index] == null) {
+            return null;
+        }
+        long[] day = days[(int) index];
+        if (rulesMarked[(int) index] < recurringEvents.size()) {
+            markRecurring(LocalDate.ofEpochDay(epochDay), day);
+        }
+        return day;
+    }
+
+    // days that may have been marked are the dayCount() days from firstEpochDay()
+    long firstEpochDay() {
+        return firstEpochDay;
+    }
+
+    int dayCount() {
+        return days.length;
+    }
+
+    // called with the epoch day of each day marked from now on, holding the lock on the bitmap
+    synchronized void onDayChanged(LongConsumer listener) {
+        dayChanged = listener;
+    }
+
+    private long[] createDay(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        if (days.length == 0) {
+            days = new long[1][];
+            rulesMarked = new int[1];
+            firstEpochDay = epochDay;
+        } else if (epochDay < firstEpochDay) {
+            int shift = (int) (firstEpochDay - epochDay);
+            long[][] grown = new long[shift + days.length][];
+            int[] grownMarked = new int[shift + days.length];
+            System.arraycopy(days, 0, grown, shift, days.length);
+            System.arraycopy(rulesMarked, 0, grownMarked, shift, days.length);
+            days = grown;
+            rulesMarked = grownMarked;
+            firstEpochDay = epochDay;
+        } else if (epochDay >= firstEpochDay + days.length) {
+            days = Arrays.copyOf(days, Math.max((int) (epochDay - firstEpochDay + 1), days.length * 2));
+            rulesMarked = Arrays.copyOf(rulesMarked, days.length);
+        }
+        int index = (int) (epochDay - firstEpochDay);
+        if (days[index] == null) {
+            days[index] = new long[2 * WORDS_PER_DAY];
+        }
+        return days[index];
+    }
+
+    // minute of the day at or after (up) or at or before the time
+    private static int roundedMinute(LocalTime time, boolean up) {
+        int minute = minuteOfDay(time);
+        return up && (time.getSecond() != 0 || time.getNano() != 0) ? minute + 1 : minute;
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    // sets bits from (inclusive) to to (exclusive) of the bitmap at offset, a word at a time
+    private static void setRange(long[] words, int offset, int from, int to) {
+        int firstWord = offset + (from >>> 6);
+        int lastWord = offset + ((to - 1) >>> 6);
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+        } else {
+            words[firstWord] |= firstMask;
+            for (int i = firstWord + 1; i < lastWord; i++) {
+                words[i] = -1L;
+            }
+            words[lastWord] |= lastMask;
+        }
+    }
+
+    static int nextSetBit(long[] words, int from) {
+        int index = from >>> 6;
+        if (index >= WORDS_PER_DAY) {
+            return -1;
+        }
+        long word = words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == WORDS_PER_DAY) {
+                return -1;
+            }
+            word = words[index];
+        }
+        int bit = index * 64 + Long.numberOfTrailingZeros(word);
+        return bit < MINUTES_PER_DAY ? bit : -1;
+    }
+
+    static int nextClearBit(long[] words, int from) {
+        int index = from >>> 6;
+        long word = ~words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == WORDS_PER_DAY) {
+                return MINUTES_PER_DAY;
+            }
+            word = ~words[index];
+        }
+        return Math.min(index * 64 + Long.numberOfTrailingZeros(word), MINUTES_PER_DAY);
+    }
+
+    private static long lastWordMask() {
+        return -1L >>> -(MINUTES_PER_DAY % 64);
+    }
+}
@@ -1,89 +1,293 @@
 package com.wbl.dates;
 
-import static java.util.stream.Collectors.toCollection;
-import static java.util.stream.Collectors.toList;
-
 import java.time.Clock;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 public class Calendar {
 
+    // a batch of at least an eighth of the set's size is merged with it and the set rebuilt, not inserted into
+    private static final int BULK_REBUILD_RATIO = 8;
+
     public final NavigableSet<Event> events = new TreeSet<>();              // ordered by start time
+    private final List<RecurringEvent> recurringEvents = new CopyOnWriteArrayList<>();
+    private WorkPattern workPattern;                                      // null until set
+    private LocalDate patternFirstDate;
+    private LocalDate patternLastDate;
     private final List<Task> tasks = new ArrayList<>();                   // ordered by priority
     public final NavigableSet<WorkPeriod> workPeriods = new TreeSet<>(); // ordered by start time
+    private final EventIndex eventIndex = new EventIndex();
+    private final List<CalendarListener> listeners = new CopyOnWriteArrayList<>();
+    private Duration taskTime = Duration.ZERO;                            // total duration of the tasks
+    private volatile FreeCapacity freeCapacity;                           // cut for the last zone asked about
+
+    private boolean incrementalScheduling;
+    private volatile ScheduleState lastState;                             // only kept when incremental
 
     /**
      * Method to create Schedule With events.
      *
+     * <p>With incremental scheduling enabled the periods of the previous schedule that precede the earliest
+     * change made through this calendar are reused, and only the remaining suffix is recomputed.</p>
+     *
      * @param clock Time
      * @return Schedule
      */
     public Schedule createSchedule(Clock clock) {
-        //TODO (maybe) save overwritePeriodsByEvents from having to consider periods and events in the past
-        NavigableSet<WorkPeriod> overwrittenPeriods = overwritePeriodsByEvents(workPeriods, events, clock.getZone());
+        ZoneId zone = clock.getZone();
         LocalDateTime ldt = LocalDateTime.now(clock);
+        ScheduleState previous = incrementalScheduling ? lastState : null;
+        int taskCount = tasks.size();
+        int workPeriodCount = workPeriods.size();
+        int eventCount = events.size();
+        NavigableSet<WorkPeriod> allWorkPeriods = allWorkPeriods();
+        NavigableSet<Event> allEvents = allEvents();
 
-        List<TaskPart> remainingTaskParts = tasks.stream().map(TaskPart::wholeOf).collect(toList());
-
+        Iterator<WorkPeriod> freePeriods;
         List<WorkPeriod> scheduledPeriods = new ArrayList<>();
-        for (WorkPeriod p : overwrittenPeriods) {
-            LocalDateTime effectiveStartTime = p.getStartTime().isAfter(ldt) ? p.getStartTime() : ldt;
-            // TODO doesn't allow for DST changes during WorkPeriod
-            if (WorkPeriod.MINIMUM_DURATION.minus(Duration.between(effectiveStartTime, p.getEndTime())).isNegative()) {
-                p.setTaskParts(remainingTaskParts);
-                scheduledPeriods.add(p.split(p.getEndTime()).orElseThrow(IllegalStateException::new));
-                remainingTaskParts = p.getTaskParts();
+        List<TaskCursor> cursors = new ArrayList<>();
+        TaskPartCounter partialTaskCounter = null;
+        if (previous != null && previous.isReusableAt(zone, ldt, workPeriodCount, eventCount)) {
+            LocalDateTime restartTime = restartTime(previous);
+            int reusedCount = restartTime == null
+                    ? previous.periods.size()
+                    : previous.countPeriodsStartingBefore(restartTime);
+            // the state keeps periods nobody else holds, so the caller is given copies it may change freely
+            scheduledPeriods.addAll(ScheduleState.copy(previous.periods.subList(0, reusedCount)));
+            cursors.addAll(previous.cursors.subList(0, reusedCount + 1));
+            partialTaskCounter = renumberPartialTask(scheduledPeriods, cursors);
+            freePeriods = restartTime == null
+                    ? Collections.emptyIterator()
+                    : new FreePeriodIterator(allWorkPeriods, allEvents, zone, restartTime);
+        } else {
+            // periods and events that are over by now are skipped; tasks still fill a running period from its start
+            freePeriods = new FreePeriodIterator(allWorkPeriods, allEvents, zone, enclosingPeriodStart(ldt));
+            cursors.add(TaskCursor.START);
+        }
+
+        TaskPacker packer = new TaskPacker(tasks, taskCount, cursors.get(cursors.size() - 1), partialTaskCounter);
+        while (freePeriods.hasNext()) {
+            WorkPeriod p = freePeriods.next();
+            if (isSchedulable(p, ldt)) {
+                // the free periods are fresh objects, so they can be handed out directly
+                p.setTaskParts(packer.pack(Duration.between(p.getStartTime(), p.getEndTime())));
+                scheduledPeriods.add(p);
+                cursors.add(packer.cursor());
             }
         }
-        return new Schedule(clock.getZone(), scheduledPeriods, events, remainingTaskParts.isEmpty());
+        if (incrementalScheduling) {
+            lastState = new ScheduleState(zone, ldt, scheduledPeriods, cursors, taskCount, workPeriodCount,
+                    eventCount);
+        }
+        return new Schedule(zone, scheduledPeriods, allEvents, packer.isDone());
     }
 
-    public NavigableSet<WorkPeriod> overwritePeriodsByEvents(ZoneId zone) {
-        return overwritePeriodsByEvents(workPeriods, events, zone);
+    /**
+     * Creates the same Schedule as createSchedule, using the primitive time line engine, which allocates
+     * nothing per work period until the result is built. Incremental scheduling does not apply to it.
+     *
+     * @param clock Time
+     * @return Schedule
+     */
+    public Schedule createTimelineSchedule(Clock clock) {
+        return TimelineScheduler.createSchedule(allWorkPeriods(), allEvents(), tasks, clock,
+                enclosingPeriodStart(LocalDateTime.now(clock)));
     }
 
-    private NavigableSet<WorkPeriod> overwritePeriodsByEvents(NavigableSet<WorkPeriod> workPeriods,
-                                                              NavigableSet<Event> events,
-                                                              ZoneId zone) {
-        NavigableSet<WorkPeriod> rawPeriods = workPeriods.stream()
-                .map(WorkPeriod::copy)
-                .collect(toCollection(TreeSet::new));
-        NavigableSet<WorkPeriod> overwrittenPeriods = new TreeSet<>();
-        WorkPeriod period = rawPeriods.pollFirst();
-        Event event = events.isEmpty() ? null : events.first();
-        while (period != null && event != null) {
-            if (!period.getEndTime().isAfter(event.getLocalStartDateTime(zone))) {
-                // non-overlapping, period first
-                overwrittenPeriods.add(period);
-                period = rawPeriods.higher(period);
-            } else if (!period.getStartTime().isBefore(event.getLocalEndDateTime(zone))) {
-                // non-overlapping, event first
-                event = events.higher(event);
-            } else if (period.getStartTime().isBefore(event.getLocalStartDateTime(zone))) {
-                // overlapping, period starts first
-                overwrittenPeriods.add(period.split(event.getLocalStartDateTime(zone)).get());
-            } else if (period.getEndTime().isAfter(event.getLocalEndDateTime(zone))) {
-                // overlapping, event starts first or at same time
-                period.split(event.getLocalEndDateTime(zone)).get();
-                event = events.higher(event);
-            } else {
-                // event encloses period
-                period = workPeriods.higher(period);
+    /**
+     * Creates the same Schedule as createSchedule, producing its periods only as they are asked for, so that
+     * reading the first days of a long calendar costs about as much as scheduling those days alone.
+     * Incremental scheduling does not apply to it.
+     *
+     * <p>The free periods are cut from the calendar as the Schedule is read, so work periods and events added in
+     * the meantime may show in the periods not yet produced.</p>
+     *
+     * @param clock Time
+     * @return Schedule
+     */
+    public Schedule createLazySchedule(Clock clock) {
+        LocalDateTime ldt = LocalDateTime.now(clock);
+        NavigableSet<Event> allEvents = allEvents();
+        Iterator<WorkPeriod> freePeriods = new FreePeriodIterator(allWorkPeriods(), allEvents, clock.getZone(),
+                enclosingPeriodStart(ldt));
+        TaskPacker packer = new TaskPacker(tasks, tasks.size(), TaskCursor.START, null);
+        return new Schedule(clock.getZone(), new LazyPeriods(freePeriods, packer, ldt), allEvents);
+    }
+
+    static boolean isSchedulable(WorkPeriod period, LocalDateTime now) {
+        LocalDateTime effectiveStartTime = period.getStartTime().isAfter(now) ? period.getStartTime() : now;
+        // TODO doesn't allow for DST changes during WorkPeriod
+        return WorkPeriod.MINIMUM_DURATION.minus(Duration.between(effectiveStartTime, period.getEndTime()))
+                .isNegative();
+    }
+
+    /**
+     * Method to find the free slots in a window, as of the current time in the zone.
+     *
+     * @param from            start of the window
+     * @param to              end of the window
+     * @param minimumDuration shortest slot wanted
+     * @param zone            zone the events are shown in
+     * @return free slots, ordered by start time and computed as the stream is consumed
+     * @see #freeSlots(LocalDateTime, LocalDateTime, Duration, Clock)
+     */
+    public Stream<WorkPeriod> freeSlots(LocalDateTime from, LocalDateTime to, Duration minimumDuration,
+                                       ZoneId zone) {
+        return freeSlots(from, to, minimumDuration, Clock.system(zone));
+    }
+
+    /**
+     * Method to find the free slots in a window: the parts of the work periods at least minimumDuration long
+     * that are neither taken by events nor by the task parts createSchedule would place there.
+     *
+     * <p>Slots are computed as the stream is consumed, so taking the first few does not look further ahead.
+     * Slots before the clock's current time are not offered.</p>
+     *
+     * @param from            start of the window
+     * @param to              end of the window
+     * @param minimumDuration shortest slot wanted
+     * @param clock           Time
+     * @return free slots, ordered by start time
+     */
+    public Stream<WorkPeriod> freeSlots(LocalDateTime from, LocalDateTime to, Duration minimumDuration,
+                                       Clock clock) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Window cannot end before it starts: " + from + "," + to);
+        } else if (minimumDuration.isNegative()) {
+            throw new IllegalArgumentException("Minimum duration cannot be negative: " + minimumDuration);
+        }
+        LocalDateTime ldt = LocalDateTime.now(clock);
+        Iterator<WorkPeriod> slots = new FreeSlotIterator(allWorkPeriods(), allEvents(), clock.getZone(), ldt,
+                enclosingPeriodStart(ldt), taskTime, from, to, minimumDuration);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(slots,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Method to tell whether createSchedule would find room for all the tasks, without creating the Schedule.
+     *
+     * <p>The free periods are cut once per zone and kept until work periods or events are added, so the answer
+     * takes a binary search over them.</p>
+     *
+     * @param clock Time
+     * @return true if the Schedule created now would be successful
+     */
+    public boolean canSchedule(Clock clock) {
+        return taskTime.compareTo(capacityAt(clock)) <= 0;
+    }
+
+    /**
+     * Method to tell whether createSchedule would find room for all the tasks and one more.
+     *
+     * @param clock Time
+     * @param task  Task that might be added
+     * @return true if the Schedule created now would be successful with the task added
+     */
+    public boolean canSchedule(Clock clock, Task task) {
+        return taskTime.plus(task.getDuration()).compareTo(capacityAt(clock)) <= 0;
+    }
+
+    // task time createSchedule could place as of the clock's time
+    private Duration capacityAt(Clock clock) {
+        ZoneId zone = clock.getZone();
+        FreeCapacity capacity = freeCapacity;
+        // a work pattern and a recurring event count as one each, since they are set or added only once
+        int workPeriodCount = workPeriods.size() + (workPattern == null ? 0 : 1);
+        int eventCount = events.size() + recurringEvents.size();
+        if (capacity == null || !capacity.isCurrent(zone, workPeriodCount, eventCount)) {
+            capacity = new FreeCapacity(allWorkPeriods(), allEvents(), zone, workPeriodCount, eventCount);
+            freeCapacity = capacity;
+        }
+        return capacity.from(LocalDateTime.now(clock));
+    }
+
+    /**
+     * Switches incremental scheduling on, so that createSchedule keeps the last Schedule and recomputes
+     * only the work periods affected by later calls to addEvent, addTask and addWorkPeriod.
+     * Changes made directly to the public sets force a full recomputation.
+     *
+     * @return Calendar
+     */
+    public Calendar enableIncrementalScheduling() {
+        incrementalScheduling = true;
+        return this;
+    }
+
+    // earliest time from which the previous schedule has to be recomputed, or null if nothing changed
+    private LocalDateTime restartTime(ScheduleState previous) {
+        LocalDateTime restart = null;
+        if (previous.dirtyFrom != null) {
+            restart = enclosingPeriodStart(previous.dirtyFrom);
+        }
+        if (tasks.size() > previous.taskCount) {
+            // new tasks are packed after the existing ones, starting in the period that completed them
+            for (int i = 0; i < previous.periods.size(); i++) {
+                if (previous.cursors.get(i + 1).taskIndex >= previous.taskCount) {
+                    LocalDateTime periodStart = previous.periods.get(i).getStartTime();
+                    restart = restart == null || periodStart.isBefore(restart) ? periodStart : restart;
+                    break;
+                }
             }
         }
-        if (period != null) {
-            overwrittenPeriods.add(period);
-            overwrittenPeriods.addAll(rawPeriods.tailSet(period));
+        return restart;
+    }
+
+    // start of the work period running at the given time, or the time itself when none is
+    private LocalDateTime enclosingPeriodStart(LocalDateTime time) {
+        WorkPeriod enclosing = allWorkPeriods().floor(new WorkPeriod(time, time));
+        return enclosing != null && enclosing.getEndTime().isAfter(time) ? enclosing.getStartTime() : time;
+    }
+
+    // parts of a task that runs on past the reused periods are numbered again, since more of them will follow;
+    // the reused periods are copies, so their parts can be replaced without touching the previous schedule
+    private TaskPartCounter renumberPartialTask(List<WorkPeriod> scheduledPeriods, List<TaskCursor> cursors) {
+        TaskCursor restartCursor = cursors.get(scheduledPeriods.size());
+        if (restartCursor.consumed.isZero()) {
+            return null;
+        }
+        int first = scheduledPeriods.size() - 1;
+        while (first > 0 && cursors.get(first).taskIndex == restartCursor.taskIndex
+                && !cursors.get(first).consumed.isZero()) {
+            first--;
         }
+        TaskPartCounter counter = new TaskPartCounter(tasks.get(restartCursor.taskIndex));
+        for (int i = first; i < scheduledPeriods.size(); i++) {
+            List<TaskPart> parts = scheduledPeriods.get(i).getTaskParts();
+            int last = parts.size() - 1;
+            parts.set(last, counter.createTaskPart(parts.get(last).getDuration()));
+        }
+        return counter;
+    }
+
+    /**
+     * Method to cut the events out of the work periods, leaving the free periods tasks can be scheduled in.
+     *
+     * @param zone Time zone the events are projected onto
+     * @return free periods, ordered by start time
+     */
+    public NavigableSet<WorkPeriod> overwritePeriodsByEvents(ZoneId zone) {
+        NavigableSet<WorkPeriod> overwrittenPeriods = new TreeSet<>();
+        new FreePeriodIterator(allWorkPeriods(), allEvents(), zone).forEachRemaining(overwrittenPeriods::add);
         return overwrittenPeriods;
     }
 
@@ -94,26 +298,160 @@ public class Calendar {
      * @return Calender
      */
     public Calendar addWorkPeriod(WorkPeriod period) {
-        WorkPeriod preceding = workPeriods.floor(period);
-        WorkPeriod following = workPeriods.ceiling(period);
+        NavigableSet<WorkPeriod> allWorkPeriods = allWorkPeriods();
+        WorkPeriod preceding = allWorkPeriods.floor(period);
+        WorkPeriod following = allWorkPeriods.ceiling(period);
         if (preceding != null && !preceding.getEndTime().isBefore(period.getStartTime())) {
             throw new IllegalArgumentException("Work Periods cannot overlap: " + preceding + "," + period);
         } else if (following != null && !following.getStartTime().isAfter(period.getEndTime())) {
             throw new IllegalArgumentException("Work Periods cannot overlap: " + period + "," + following);
         }
         workPeriods.add(period);
+        markChanged(period.getStartTime(), 1, 0);
+        for (CalendarListener listener : listeners) {
+            listener.workPeriodAdded(period);
+        }
         return this;
     }
 
     /**
      * Method to addWorkPeriods.
      *
+     * <p>The periods are sorted once and checked against each other and the calendar's periods in one sweep.
+     * Nothing is added if any of them overlap. A batch that is large next to the calendar is merged with its
+     * periods and the set rebuilt from the sorted result in linear time.</p>
+     *
      * @param periods List of Periods
      * @return Calender
+     * @throws IllegalArgumentException listing every overlapping pair
      */
     public Calendar addWorkPeriods(List<WorkPeriod> periods) {
-        for (WorkPeriod wp : periods) {
-            addWorkPeriod(wp);
+        if (periods.isEmpty()) {
+            return this;
+        }
+        List<WorkPeriod> sorted = new ArrayList<>(periods);
+        Collections.sort(sorted);
+        boolean rebuild = sorted.size() >= workPeriods.size() / BULK_REBUILD_RATIO;
+        List<WorkPeriod> merged = rebuild ? mergeSorted(workPeriods, sorted, false) : sorted;
+
+        // a period overlaps an earlier one exactly when it overlaps the one reaching furthest so far
+        List<String> conflicts = new ArrayList<>();
+        WorkPeriod furthest = merged.get(0);
+        for (int i = 1; i < merged.size(); i++) {
+            WorkPeriod period = merged.get(i);
+            addConflict(furthest, period, conflicts);
+            if (period.getEndTime().isAfter(furthest.getEndTime())) {
+                furthest = period;
+            }
+        }
+        // a rebuild has already checked the calendar's own periods, leaving those of the work pattern
+        NavigableSet<WorkPeriod> others = rebuild ? patternWorkPeriods() : allWorkPeriods();
+        for (WorkPeriod period : sorted) {
+            addNeighbourConflicts(others, period, conflicts);
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException("Work Periods cannot overlap: " + String.join("; ", conflicts));
+        }
+
+        if (rebuild) {
+            workPeriods.clear();
+            workPeriods.addAll(new SortedListSet<>(merged));
+        } else {
+            workPeriods.addAll(sorted);
+        }
+        markChanged(sorted.get(0).getStartTime(), sorted.size(), 0);
+        for (CalendarListener listener : listeners) {
+            sorted.forEach(listener::workPeriodAdded);
+        }
+        return this;
+    }
+
+    // conflicts of a period with the periods of a set it is not part of, which do not overlap each other: the
+    // one before it and every one starting within it
+    private static void addNeighbourConflicts(NavigableSet<WorkPeriod> periods, WorkPeriod period,
+                                              List<String> conflicts) {
+        WorkPeriod preceding = periods.lower(period);
+        if (preceding != null) {
+            addConflict(preceding, period, conflicts);
+        }
+        WorkPeriod end = new WorkPeriod(period.getEndTime(), period.getEndTime());
+        for (WorkPeriod following : periods.subSet(period, true, end, true)) {
+            addConflict(period, following, conflicts);
+        }
+    }
+
+    // as in addWorkPeriod, periods that only touch count as overlapping
+    private static void addConflict(WorkPeriod earlier, WorkPeriod later, List<String> conflicts) {
+        if (!earlier.getEndTime().isBefore(later.getStartTime())) {
+            conflicts.add(earlier + "," + later);
+        }
+    }
+
+    // merges a sorted batch into the ordered contents of a set; with dropEqual, a batch element comparing
+    // equal to one already merged is left out, as TreeSet.add would
+    private static <E extends Comparable<? super E>> List<E> mergeSorted(NavigableSet<E> set, List<E> batch,
+                                                                         boolean dropEqual) {
+        List<E> merged = new ArrayList<>(set.size() + batch.size());
+        Iterator<E> existing = set.iterator();
+        E next = existing.hasNext() ? existing.next() : null;
+        for (E element : batch) {
+            while (next != null && next.compareTo(element) <= 0) {
+                merged.add(next);
+                next = existing.hasNext() ? existing.next() : null;
+            }
+            if (!dropEqual || merged.isEmpty() || merged.get(merged.size() - 1).compareTo(element) != 0) {
+                merged.add(element);
+            }
+        }
+        while (next != null) {
+            merged.add(next);
+            next = existing.hasNext() ? existing.next() : null;
+        }
+        return merged;
+    }
+
+    /**
+     * Method to set the weekly shifts worked from one date to another. Their work periods are not stored:
+     * createSchedule, freeSlots and the other views of the calendar make them as they reach them, so the length of
+     * the range costs no memory. createSchedule lists every period up to the last date, so the range should end.
+     *
+     * <p>A calendar has one work pattern, set once. As with addWorkPeriods, nothing is set if any of its periods
+     * would overlap or touch one added to the calendar.</p>
+     *
+     * @param pattern   WorkPattern
+     * @param firstDate date of the first shifts
+     * @param lastDate  date of the last shifts
+     * @return Calendar
+     * @throws IllegalArgumentException listing every overlapping pair
+     * @throws IllegalStateException    if a work pattern was set before
+     */
+    public Calendar setWorkPattern(WorkPattern pattern, LocalDate firstDate, LocalDate lastDate) {
+        if (workPattern != null) {
+            throw new IllegalStateException("Calendar already has a work pattern");
+        } else if (lastDate.isBefore(firstDate)) {
+            throw new IllegalArgumentException("Range cannot end before it starts: " + firstDate + "," + lastDate);
+        }
+        NavigableSet<WorkPeriod> generated = new WorkPeriodSetView(Collections.emptyNavigableSet(), pattern,
+                firstDate, lastDate);
+        List<String> conflicts = new ArrayList<>();
+        // periods are at most two days long, so only those starting near the range can reach one of its periods
+        WorkPeriod fromProbe = new WorkPeriod(firstDate.minusDays(2).atStartOfDay(), Duration.ZERO);
+        WorkPeriod toProbe = new WorkPeriod(lastDate.plusDays(2).atStartOfDay(), Duration.ZERO);
+        for (WorkPeriod period : workPeriods.subSet(fromProbe, true, toProbe, false)) {
+            addNeighbourConflicts(generated, period, conflicts);
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException("Work Periods cannot overlap: " + String.join("; ", conflicts));
+        }
+
+        workPattern = pattern;
+        patternFirstDate = firstDate;
+        patternLastDate = lastDate;
+        if (!generated.isEmpty()) {
+            markChanged(generated.first().getStartTime(), 0, 0);
+        }
+        for (CalendarListener listener : listeners) {
+            generated.forEach(listener::workPeriodAdded);
         }
         return this;
     }
@@ -125,11 +463,20 @@ public class Calendar {
 
     public Calendar addTask(Task task) {
         tasks.add(task);
+        taskTime = taskTime.plus(task.getDuration());
         return this;
     }
 
     public Calendar addEvent(Event evt) {
-        events.add(evt);
+        if (events.add(evt)) {
+            eventIndex.added(evt, events.size());
+            if (lastState != null) {
+                markChanged(evt.getLocalStartDateTime(lastState.zone), 0, 1);
+            }
+            for (CalendarListener listener : listeners) {
+                listener.eventAdded(evt);
+            }
+        }
         return this;
     }
 
@@ -137,4 +484,324 @@ public class Calendar {
         addEvent(Event.of(eventDateTime, eventDateTime.plus(duration), description));
         return this;
     }
+
+    /**
+     * Method to add many Events at once.
+     *
+     * <p>As with addEvent, an event starting at the same instant as one already in the calendar is left out.
+     * The events are sorted once, and a batch that is large next to the calendar is merged with its events and
+     * the set rebuilt from the sorted result in linear time.</p>
+     *
+     * @param evts Events
+     * @return Calendar
+     */
+    public Calendar addEvents(Collection<? extends Event> evts) {
+        if (evts.isEmpty()) {
+            return this;
+        }
+        List<Event> sorted = new ArrayList<>(evts);
+        Collections.sort(sorted);
+        int countBefore = events.size();
+        if (sorted.size() >= countBefore / BULK_REBUILD_RATIO) {
+            List<Event> merged = mergeSorted(events, sorted, true);
+            events.clear();
+            events.addAll(new SortedListSet<>(merged));
+        } else {
+            events.addAll(sorted);
+        }
+        ScheduleState state = lastState;
+        if (state != null && events.size() > countBefore) {
+            markChanged(sorted.get(0).getLocalStartDateTime(state.zone), 0, events.size() - countBefore);
+        }
+        for (CalendarListener listener : listeners) {
+            for (Event evt : sorted) {
+                // events left out for starting with another are not the calendar's
+                if (events.ceiling(evt) == evt) {
+                    listener.eventAdded(evt);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Method to add an event that repeats by a rule. Its occurrences are not stored: createSchedule, freeSlots and
+     * the Schedule make them as they reach them, so the horizon of the rule costs no memory.
+     *
+     * <p>As with addEvent, an occurrence starting at the same instant as an event of the calendar is left out, and
+     * so is one starting with an occurrence of a recurring event added earlier.</p>
+     *
+     * @param recurring RecurringEvent
+     * @return Calendar
+     */
+    public Calendar addRecurringEvent(RecurringEvent recurring) {
+        recurringEvents.add(recurring);
+        Event first = recurring.first();
+        ScheduleState state = lastState;
+        if (first != null && state != null) {
+            markChanged(first.getLocalStartDateTime(state.zone), 0, 0);
+        }
+        for (CalendarListener listener : listeners) {
+            listener.recurringEventAdded(recurring);
+        }
+        return this;
+    }
+
+    /**
+     * Method to find the Events that overlap a window, including any that started before it and are still running.
+     * Events that only touch the window do not overlap it.
+     *
+     * @param from start of the window
+     * @param to   end of the window
+     * @return Events, ordered by start time
+     */
+    public List<Event> eventsOverlapping(ZonedDateTime from, ZonedDateTime to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Window cannot end before it starts: " + from + "," + to);
+        }
+        // events are kept to the second, so one starting in the second the window ends in still overlaps it
+        long toSecond = to.getNano() == 0 ? to.toEpochSecond() : to.toEpochSecond() + 1;
+        if (recurringEvents.isEmpty()) {
+            return eventIndex.overlapping(events, from.toEpochSecond(), toSecond);
+        }
+        // events are at most a day long, so only those starting in the day before the window can reach into it
+        List<Event> overlapping = new ArrayList<>();
+        Event fromProbe = Event.probe(from.minusDays(1).toEpochSecond());
+        for (Event evt : allEvents().subSet(fromProbe, true, Event.probe(toSecond), false)) {
+            if (evt.getEndSecond() > from.toEpochSecond()) {
+                overlapping.add(evt);
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Method to find the WorkPeriods that overlap a window. Periods that only touch the window do not overlap it.
+     *
+     * @param from start of the window
+     * @param to   end of the window
+     * @return WorkPeriods, ordered by start time
+     */
+    public List<WorkPeriod> periodsOverlapping(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Window cannot end before it starts: " + from + "," + to);
+        }
+        List<WorkPeriod> overlapping = new ArrayList<>();
+        // periods don't overlap each other, so only the last one starting before the window can reach into it
+        WorkPeriod fromProbe = new WorkPeriod(from, from);
+        NavigableSet<WorkPeriod> allWorkPeriods = allWorkPeriods();
+        WorkPeriod preceding = allWorkPeriods.lower(fromProbe);
+        if (preceding != null && preceding.getEndTime().isAfter(from)) {
+            overlapping.add(preceding);
+        }
+        for (WorkPeriod period : allWorkPeriods.subSet(fromProbe, true, new WorkPeriod(to, to), false)) {
+            if (period.getEndTime().isAfter(from)) {
+                overlapping.add(period);
+            }
+        }
+        return overlapping;
+    }
+
+    // the work periods with those of the work pattern, made as they are read
+    NavigableSet<WorkPeriod> allWorkPeriods() {
+        return workPattern == null
+                ? workPeriods
+                : new WorkPeriodSetView(workPeriods, workPattern, patternFirstDate, patternLastDate);
+    }
+
+    private NavigableSet<WorkPeriod> patternWorkPeriods() {
+        return workPattern == null
+                ? Collections.emptyNavigableSet()
+                : new WorkPeriodSetView(Collections.emptyNavigableSet(), workPattern, patternFirstDate,
+                        patternLastDate);
+    }
+
+    // the events with the occurrences of the recurring events, made as they are read
+    NavigableSet<Event> allEvents() {
+        return recurringEvents.isEmpty() ? events : new EventSetView(events, recurringEvents);
+    }
+
+    List<RecurringEvent> recurringEvents() {
+        return recurringEvents;
+    }
+
+    void addListener(CalendarListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(CalendarListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void markChanged(LocalDateTime from, int addedWorkPeriods, int addedEvents) {
+        ScheduleState state = lastState;
+        if (state != null) {
+            state.dirtyFrom = state.dirtyFrom == null || from.isBefore(state.dirtyFrom) ? from : state.dirtyFrom;
+            state.workPeriodCount += addedWorkPeriods;
+            state.eventCount += addedEvents;
+        }
+    }
+
+    // position in the task queue: the index of the next task and how much of it is already scheduled
+    private static final class TaskCursor {
+
+        static final TaskCursor START = new TaskCursor(0, Duration.ZERO);
+
+        private final int taskIndex;
+        private final Duration consumed;
+
+        private TaskCursor(int taskIndex, Duration consumed) {
+            this.taskIndex = taskIndex;
+            this.consumed = consumed;
+        }
+    }
+
+    // walks the task queue once, filling each period from its start in priority order
+    private static final class TaskPacker {
+
+        private final List<Task> tasks;
+        private final int taskCount;
+        private int taskIndex;
+        private Duration consumed;
+        private TaskPartCounter counter;                        // numbers the parts of the current task
+
+        TaskPacker(List<Task> tasks, int taskCount, TaskCursor start, TaskPartCounter partialCounter) {
+            this.tasks = tasks;
+            this.taskCount = taskCount;
+            this.taskIndex = start.taskIndex;
+            this.consumed = start.consumed;
+            this.counter = partialCounter;
+        }
+
+        List<TaskPart> pack(Duration capacity) {
+            List<TaskPart> taskParts = new ArrayList<>();
+            Duration available = capacity;
+            while (available.compareTo(Duration.ZERO) > 0 && taskIndex < taskCount) {
+                Task task = tasks.get(taskIndex);
+                if (counter == null) {
+                    counter = new TaskPartCounter(task);
+                }
+                Duration remaining = task.getDuration().minus(consumed);
+                if (remaining.compareTo(available) <= 0) {
+                    taskParts.add(counter.createTaskPart(remaining));
+                    available = available.minus(remaining);
+                    taskIndex++;
+                    consumed = Duration.ZERO;
+                    counter = null;
+                } else {
+                    taskParts.add(counter.createTaskPart(available));
+                    consumed = consumed.plus(available);
+                    available = Duration.ZERO;
+                }
+            }
+            return taskParts;
+        }
+
+        TaskCursor cursor() {
+            return new TaskCursor(taskIndex, consumed);
+        }
+
+        boolean isDone() {
+            return taskIndex == taskCount;
+        }
+    }
+
+    // the periods of createSchedule, each packed as it is handed out
+    private static final class LazyPeriods implements Schedule.PeriodSource {
+
+        private final Iterator<WorkPeriod> freePeriods;
+        private final TaskPacker packer;
+        private final LocalDateTime now;
+        private WorkPeriod next;
+
+        LazyPeriods(Iterator<WorkPeriod> freePeriods, TaskPacker packer, LocalDateTime now) {
+            this.freePeriods = freePeriods;
+            this.packer = packer;
+            this.now = now;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && freePeriods.hasNext()) {
+                WorkPeriod p = freePeriods.next();
+                next = isSchedulable(p, now) ? p : null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public WorkPeriod next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            WorkPeriod p = next;
+            next = null;
+            p.setTaskParts(packer.pack(Duration.between(p.getStartTime(), p.getEndTime())));
+            return p;
+        }
+
+        @Override
+        public boolean isDone() {
+            return packer.isDone();
+        }
+    }
+
+    // what an incremental createSchedule needs to know about the previous run
+    private static final class ScheduleState {
+
+        private final ZoneId zone;
+        private final LocalDateTime now;
+        private final List<WorkPeriod> periods;
+        private final List<TaskCursor> cursors;                 // cursors.get(i) is the position before period i
+        private final int taskCount;
+        private int workPeriodCount;
+        private int eventCount;
+        private LocalDateTime dirtyFrom;
+
+        ScheduleState(ZoneId zone, LocalDateTime now, List<WorkPeriod> periods, List<TaskCursor> cursors,
+                      int taskCount, int workPeriodCount, int eventCount) {
+            this.zone = zone;
+            this.now = now;
+            this.periods = copy(periods);
+            this.cursors = cursors;
+            this.taskCount = taskCount;
+            this.workPeriodCount = workPeriodCount;
+            this.eventCount = eventCount;
+        }
+
+        boolean isReusableAt(ZoneId zone, LocalDateTime now, int workPeriodCount, int eventCount) {
+            // a later "now" leaves the schedule unchanged as long as its first period stays schedulable
+            return this.zone.equals(zone) && !now.isBefore(this.now)
+                    && this.workPeriodCount == workPeriodCount && this.eventCount == eventCount
+                    && (periods.isEmpty() || isSchedulable(periods.get(0), now));
+        }
+
+        // copies of the periods and their parts, with parts that shared a counter sharing its copy
+        static List<WorkPeriod> copy(List<WorkPeriod> periods) {
+            Map<TaskPartCounter, TaskPartCounter> counterCopies = new IdentityHashMap<>();
+            List<WorkPeriod> copies = new ArrayList<>(periods.size());
+            for (WorkPeriod period : periods) {
+                List<TaskPart> parts = new ArrayList<>(period.getTaskParts().size());
+                for (TaskPart part : period.getTaskParts()) {
+                    parts.add(part.copy(counterCopies));
+                }
+                copies.add(new WorkPeriod(period.getStartTime(), period.getEndTime(), parts));
+            }
+            return copies;
+        }
+
+        int countPeriodsStartingBefore(LocalDateTime time) {
+            int low = 0;
+            int high = periods.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (periods.get(mid).getStartTime().isBefore(time)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.wbl.dates;
+
+import java.time.Clock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+public class CalendarBatchScheduler {
+
+    private final Executor executor;
+
+    public CalendarBatchScheduler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public CalendarBatchScheduler(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Method to create the Schedules of many Calendars in parallel.
+     * A Calendar whose schedule cannot be created is reported in its Result and does not stop the others.
+     *
+     * @param calendars Calendars
+     * @param clock     Time
+     * @return one Result per Calendar, in input order
+     */
+    public List<Result> schedule(Collection<? extends Calendar> calendars, Clock clock) {
+        List<CompletableFuture<Result>> futures = new ArrayList<>(calendars.size());
+        for (Calendar calendar : calendars) {
+            futures.add(CompletableFuture.supplyAsync(() -> calendar.createSchedule(clock), executor)
+                    .handle((schedule, failure) -> new Result(calendar, schedule, unwrap(failure))));
+        }
+        List<Result> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<Result> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    public static final class Result {
+
+        private final Calendar calendar;
+        private final Schedule schedule;
+        private final Throwable failure;
+
+        private Result(Calendar calendar, Schedule schedule, Throwable failure) {
+            this.calendar = calendar;
+            this.schedule = schedule;
+            this.failure = failure;
+        }
+
+        public Calendar getCalendar() {
+            return calendar;
+        }
+
+        public Optional<Schedule> getSchedule() {
+            return Optional.ofNullable(schedule);
+        }
+
+        public Optional<Throwable> getFailure() {
+            return Optional.ofNullable(failure);
+        }
+
+        public boolean isFailed() {
+            return failure != null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.wbl.dates;
+
+/**
+ * Told about the work periods and events added to a Calendar through its add methods, so that views built
+ * from the calendar can follow it without being rebuilt.
+ */
+interface CalendarListener {
+
+    void workPeriodAdded(WorkPeriod period);
+
+    void eventAdded(Event event);
+
+    // the rule only, since its occurrences may run on for years
+    void recurringEventAdded(RecurringEvent recurring);
+}
@@ -0,0 +1,224 @@
+package com.wbl.dates;
+
+import static com.wbl.dates.BusyBitmap.MINUTES_PER_DAY;
+import static com.wbl.dates.BusyBitmap.WORDS_PER_DAY;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Answers capacity questions about a range of a Calendar's time line, to the minute: how much work time is
+ * booked by events, how much is free, and the longest free gap.
+ *
+ * <p>A segment tree over the days of a {@link BusyBitmap}, in which each node holds the booked and free minutes of
+ * its days and the free runs at its start, at its end and anywhere in it, so that whole days of a range are
+ * answered in O(log n) and the days at its ends from their bitmaps. The tree follows work periods and events added
+ * through the calendar's add methods, updating the leaves of the days they touch, until it is detached; a recurring
+ * event added has the tree rebuilt at the next query, as the bitmap marks it on the days as they are read. Updates
+ * and queries lock on the bitmap, so queries may run on other threads than the one adding to the calendar.</p>
+ */
+public final class CapacityIndex {
+
+    private final BusyBitmap bitmap;
+    private long firstEpochDay;
+    private int recurringEventCount;                 // recurring events of the bitmap the tree was built with
+    private int capacity;                            // number of leaves, a power of two
+    private Summary[] tree;                          // node i has children 2i and 2i + 1; leaves start at capacity
+
+    private CapacityIndex(BusyBitmap bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * Method to build the index of a Calendar, whose events are shown in the given zone.
+     *
+     * @param calendar Calendar
+     * @param zone     Zone
+     * @return CapacityIndex
+     */
+    public static CapacityIndex of(Calendar calendar, ZoneId zone) {
+        CapacityIndex index = new CapacityIndex(BusyBitmap.of(calendar, zone));
+        synchronized (index.bitmap) {
+            index.rebuild();
+            index.bitmap.onDayChanged(index::dayChanged);
+        }
+        return index;
+    }
+
+    /**
+     * Method to stop following the calendar, so that the calendar no longer holds on to the index or updates it.
+     * The index keeps answering for the work periods and events added before.
+     */
+    public void detach() {
+        bitmap.detach();
+    }
+
+    /**
+     * Method to get the work time in a range that is taken by events.
+     *
+     * @param from start of the range, taken to the minute
+     * @param to   end of the range, taken to the minute
+     * @return booked Duration
+     */
+    public Duration bookedBetween(LocalDateTime from, LocalDateTime to) {
+        return Duration.ofMinutes(summarize(from, to).booked);
+    }
+
+    /**
+     * Method to get the work time in a range that is not taken by events.
+     *
+     * @param from start of the range, taken to the minute
+     * @param to   end of the range, taken to the minute
+     * @return free Duration
+     */
+    public Duration freeBetween(LocalDateTime from, LocalDateTime to) {
+        return Duration.ofMinutes(summarize(from, to).free);
+    }
+
+    /**
+     * Method to get the longest stretch of free work time in a range, which may run across midnight.
+     *
+     * @param from start of the range, taken to the minute
+     * @param to   end of the range, taken to the minute
+     * @return Duration of the longest free gap
+     */
+    public Duration longestFreeGap(LocalDateTime from, LocalDateTime to) {
+        return Duration.ofMinutes(summarize(from, to).best);
+    }
+
+    private Summary summarize(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range cannot end before it starts: " + from + "," + to);
+        }
+        synchronized (bitmap) {
+            // the bitmap marks a recurring event on a day as the day is read, so the leaves are read again
+            if (recurringEventCount != bitmap.recurringEventCount()) {
+                rebuild();
+            }
+            return summarizeDays(from, to);
+        }
+    }
+
+    private Summary summarizeDays(LocalDateTime from, LocalDateTime to) {
+        long fromDay = from.toLocalDate().toEpochDay();
+        long toDay = to.toLocalDate().toEpochDay();
+        int fromMinute = BusyBitmap.minuteOfDay(from.toLocalTime());
+        int toMinute = BusyBitmap.minuteOfDay(to.toLocalTime());
+        if (fromDay == toDay) {
+            return partOfDay(fromDay, fromMinute, toMinute);
+        }
+        Summary first = partOfDay(fromDay, fromMinute, MINUTES_PER_DAY);
+        return Summary.combine(Summary.combine(first, wholeDays(fromDay + 1, toDay)), partOfDay(toDay, 0, toMinute));
+    }
+
+    // days from first (inclusive) to end (exclusive); days outside the tree have no work time
+    private Summary wholeDays(long first, long end) {
+        long lo = Math.max(first, firstEpochDay);
+        long hi = Math.min(end, firstEpochDay + capacity);
+        if (lo >= hi) {
+            return new Summary(Math.max(0, end - first) * MINUTES_PER_DAY, 0, 0, 0, 0, 0);
+        }
+        Summary left = Summary.EMPTY;
+        Summary right = Summary.EMPTY;
+        for (int l = (int) (lo - firstEpochDay) + capacity, r = (int) (hi - firstEpochDay) + capacity; l < r;
+             l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                left = Summary.combine(left, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                right = Summary.combine(tree[--r], right);
+            }
+        }
+        return Summary.combine(left, right);
+    }
+
+    private Summary partOfDay(long epochDay, int from, int to) {
+        long[] words = bitmap.dayWords(epochDay);
+        if (words == null || from >= to) {
+            return new Summary(Math.max(0, to - from), 0, 0, 0, 0, 0);
+        }
+        long[] free = new long[WORDS_PER_DAY];
+        long booked = 0;
+        long freeCount = 0;
+        for (int i = from >>> 6; i <= (to - 1) >>> 6; i++) {
+            long mask = -1L;
+            if (i == from >>> 6) {
+                mask &= -1L << from;
+            }
+            if (i == (to - 1) >>> 6) {
+                mask &= -1L >>> -to;
+            }
+            free[i] = words[i] & ~words[WORDS_PER_DAY + i] & mask;
+            booked += Long.bitCount(words[i] & words[WORDS_PER_DAY + i] & mask);
+            freeCount += Long.bitCount(free[i]);
+        }
+        long prefix = 0;
+        long suffix = 0;
+        long best = 0;
+        for (int start = BusyBitmap.nextSetBit(free, from); start >= 0 && start < to;
+             start = BusyBitmap.nextSetBit(free, BusyBitmap.nextClearBit(free, start))) {
+            int end = Math.min(BusyBitmap.nextClearBit(free, start), to);
+            prefix = start == from ? end - from : prefix;
+            suffix = end == to ? end - start : suffix;
+            best = Math.max(best, end - start);
+        }
+        return new Summary(to - from, booked, freeCount, prefix, suffix, best);
+    }
+
+    private void dayChanged(long epochDay) {
+        if (epochDay < firstEpochDay || epochDay >= firstEpochDay + capacity) {
+            rebuild();
+            return;
+        }
+        int node = capacity + (int) (epochDay - firstEpochDay);
+        tree[node] = partOfDay(epochDay, 0, MINUTES_PER_DAY);
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            tree[node] = Summary.combine(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private void rebuild() {
+        firstEpochDay = bitmap.firstEpochDay();
+        recurringEventCount = bitmap.recurringEventCount();
+        capacity = Integer.highestOneBit(Math.max(1, bitmap.dayCount() * 2 - 1));
+        tree = new Summary[2 * capacity];
+        for (int i = 0; i < capacity; i++) {
+            tree[capacity + i] = partOfDay(firstEpochDay + i, 0, MINUTES_PER_DAY);
+        }
+        for (int node = capacity - 1; node > 0; node--) {
+            tree[node] = Summary.combine(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    // minutes of a stretch of the time line
+    private static final class Summary {
+
+        static final Summary EMPTY = new Summary(0, 0, 0, 0, 0, 0);
+
+        private final long length;
+        private final long booked;
+        private final long free;
+        private final long prefix;                   // free run from the start
+        private final long suffix;                   // free run up to the end
+        private final long best;                     // longest free run
+
+        Summary(long length, long booked, long free, long prefix, long suffix, long best) {
+            this.length = length;
+            this.booked = booked;
+            this.free = free;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.best = best;
+        }
+
+        static Summary combine(Summary first, Summary second) {
+            return new Summary(first.length + second.length,
+                    first.booked + second.booked,
+                    first.free + second.free,
+                    first.prefix == first.length ? first.length + second.prefix : first.prefix,
+                    second.suffix == second.length ? second.length + first.suffix : second.suffix,
+                    Math.max(Math.max(first.best, second.best), first.suffix + second.prefix));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.wbl.dates;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.threeten.extra.Interval;
+
+/**
+ * Finds the times at which all of a number of Calendars are free, for example to place a meeting.
+ *
+ * <p>Each calendar is read in its own zone through Calendar.freeSlots, so only time inside its work periods that
+ * is taken neither by events nor by its scheduled tasks counts as free. The calendars' free slots are merged in
+ * order of their ends with a priority queue, and the search stops at the last time asked for, so its cost grows
+ * with the number of free slots read up to that point rather than with the length of the window.</p>
+ */
+public class CommonAvailability {
+
+    private final List<Calendar> calendars = new ArrayList<>();
+    private final List<ZoneId> zones = new ArrayList<>();
+
+    /**
+     * Method to add a Calendar, whose work periods are in the given zone.
+     *
+     * @param calendar Calendar
+     * @param zone     zone of the Calendar
+     * @return CommonAvailability
+     */
+    public CommonAvailability add(Calendar calendar, ZoneId zone) {
+        calendars.add(calendar);
+        zones.add(zone);
+        return this;
+    }
+
+    /**
+     * Method to find the earliest times at which all the Calendars are free for at least the given length.
+     * Each time found is as long as the common free time allows, within the window.
+     *
+     * @param from   start of the window
+     * @param to     end of the window
+     * @param length shortest common free time wanted
+     * @param count  most times wanted
+     * @param clock  Time
+     * @return up to count Intervals, ordered by start
+     */
+    public List<Interval> findSlots(Instant from, Instant to, Duration length, int count, Clock clock) {
+        if (calendars.isEmpty()) {
+            throw new IllegalStateException("No calendars to find common availability in");
+        }
+        List<Interval> slots = new ArrayList<>();
+        PriorityQueue<SlotCursor> byEnd = new PriorityQueue<>(calendars.size(),
+                Comparator.comparing((SlotCursor cursor) -> cursor.end));
+        Instant latestStart = from;
+        for (int i = 0; i < calendars.size(); i++) {
+            ZoneId zone = zones.get(i);
+            SlotCursor cursor = new SlotCursor(calendars.get(i).freeSlots(LocalDateTime.ofInstant(from, zone),
+                    LocalDateTime.ofInstant(to, zone), length, clock.withZone(zone)).iterator(), zone);
+            if (!cursor.advance()) {
+                return slots;
+            }
+            latestStart = cursor.start.isAfter(latestStart) ? cursor.start : latestStart;
+            byEnd.add(cursor);
+        }
+
+        // every calendar is free from latestStart until the earliest end among their current slots
+        while (slots.size() < count) {
+            SlotCursor earliestEnding = byEnd.poll();
+            if (Duration.between(latestStart, earliestEnding.end).compareTo(length) >= 0) {
+                slots.add(Interval.of(latestStart, earliestEnding.end));
+            }
+            if (!earliestEnding.advance()) {
+                break;
+            }
+            latestStart = earliestEnding.start.isAfter(latestStart) ? earliestEnding.start : latestStart;
+            byEnd.add(earliestEnding);
+        }
+        return slots;
+    }
+
+    // the free slot of one calendar that the merge has reached
+    private static final class SlotCursor {
+
+        private final Iterator<WorkPeriod> slots;
+        private final ZoneId zone;
+        private Instant start;
+        private Instant end;
+
+        SlotCursor(Iterator<WorkPeriod> slots, ZoneId zone) {
+            this.slots = slots;
+            this.zone = zone;
+        }
+
+        boolean advance() {
+            if (!slots.hasNext()) {
+                return false;
+            }
+            Interval slot = slots.next().toInterval(zone);
+            start = slot.getStart();
+            end = slot.getEnd();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.wbl.dates;
+
+import java.time.LocalDate;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a range of the dates of a Recurrence, taken by their numbers in the rule, so that it knows its
+ * exact size and splits in O(1) at any point. A parallel stream over decades of dates, or of working days, is
+ * divided evenly between threads as LongStream.range would be, where one built by Stream.iterate and filter
+ * cannot be divided at all.
+ */
+final class DateSpliterator implements Spliterator<LocalDate> {
+
+    private final Recurrence rule;
+    private long index;                          // number of the next date in the rule
+    private final long end;                      // number of the date after the last
+
+    DateSpliterator(Recurrence rule, long index, long end) {
+        this.rule = rule;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super LocalDate> action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(rule.dateAt(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super LocalDate> action) {
+        for (; index < end; index++) {
+            action.accept(rule.dateAt(index));
+        }
+    }
+
+    @Override
+    public Spliterator<LocalDate> trySplit() {
+        // numbers may be negative, so the midpoint is taken from the difference
+        long mid = index + (end - index) / 2;
+        if (mid <= index) {
+            return null;
+        }
+        Spliterator<LocalDate> prefix = new DateSpliterator(rule, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super LocalDate> getComparator() {
+        // dates come in their natural order
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.wbl.dates;
+
+import java.time.LocalDate;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One day of a Schedule: the parts of its scheduled periods and events that fall on the day, split at midnight
+ * as Schedule.toString shows them, and the day's text in that output. Views of the same day showing the same
+ * text are equal.
+ */
+public final class DayView {
+
+    private final LocalDate date;
+    private final List<WorkPeriod> periods;
+    private final List<Event> events;
+    private final String text;
+
+    DayView(LocalDate date, List<WorkPeriod> periods, List<Event> events, String text) {
+        this.date = date;
+        this.periods = Collections.unmodifiableList(periods);
+        this.events = Collections.unmodifiableList(events);
+        this.text = text;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Method to get the parts of the scheduled periods that start on the day. They are copies, with copies of
+     * the task parts, so the Schedule is left untouched.
+     *
+     * @return WorkPeriods, ordered by start time
+     */
+    public List<WorkPeriod> getPeriods() {
+        return periods;
+    }
+
+    /**
+     * Method to get the parts of the events that start on the day, in the Schedule's zone.
+     *
+     * @return Events, ordered by start time
+     */
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    /**
+     * The day as Schedule.toString shows it: a line with the date, then its periods and events by start time.
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        DayView that = (DayView) obj;
+        return date.equals(that.date) && text.equals(that.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * date.hashCode() + text.hashCode();
+    }
+}
@@ -3,30 +3,59 @@ package com.wbl.dates;
 import static java.time.temporal.ChronoUnit.DAYS;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
-
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An appointment that takes its time out of the work periods.
+ *
+ * <p>Events are held compactly, as epoch seconds and an index into a table of the zones events were created in,
+ * so start and end times are truncated to the whole second. Ordering is by start instant, so two events starting
+ * within the same second compare as equal and a calendar keeps only the first of them.</p>
+ */
 public class Event implements Comparable<Event> {
 
-    private ZonedDateTime startTime;
-    private ZonedDateTime endTime;
-    private String description;
+    // the few distinct zones events are created in; an Event keeps the index of its zone in the array
+    private static final Map<ZoneId, Integer> ZONE_INDEXES = new ConcurrentHashMap<>();
+    private static volatile ZoneId[] zones = new ZoneId[0];
+
+    private final long startSecond;                  // since the epoch
+    private long endSecond;
+    private final int zoneIndex;
+    private final String description;                // interned, calendars repeat the same few descriptions
+    private volatile LocalSeconds localSeconds;      // projection into the zone asked for last, null until then
 
     private Event(ZonedDateTime startTime, ZonedDateTime endTime, String description) {
-        if (Duration.ofDays(1).minus(Duration.between(startTime, endTime)).isNegative()) {
+        this(startTime.toEpochSecond(), endTime.toEpochSecond(), zoneIndex(startTime.getZone()),
+                description == null ? null : description.intern());
+    }
+
+    private Event(long startSecond, long endSecond, int zoneIndex, String description) {
+        if (endSecond - startSecond > Duration.ofDays(1).getSeconds()) {
             // display code doesn't cover this unlikely case
             throw new IllegalArgumentException("Events may not be more than 24 hours long");
         }
-        this.startTime = startTime;
-        this.endTime = endTime;
+        this.startSecond = startSecond;
+        this.endSecond = endSecond;
+        this.zoneIndex = zoneIndex;
         this.description = description;
     }
 
+    /**
+     * Parameterized Constructor.
+     *
+     * @param startTime   start, truncated to the second
+     * @param duration    duration, the end being truncated to the second
+     * @param description description
+     * @throws IllegalArgumentException if the event is over 24 hours long
+     */
     public Event(ZonedDateTime startTime, Duration duration, String description) {
         this(startTime, startTime.plus(duration), description);
     }
@@ -34,25 +63,38 @@ public class Event implements Comparable<Event> {
     // Convenience method to assist displaying a schedule by the day
     public Optional<Event> split(ZoneId zone) {
         LocalDateTime midnight = getLocalStartDateTime(zone).plusDays(1).truncatedTo(DAYS);
-        return split(midnight.atZone(zone));
-    }
-
-    private Optional<Event> split(ZonedDateTime splitTime) {
-        if (!splitTime.isAfter(startTime) || !splitTime.isBefore(endTime)) {
+        long splitSecond = midnight.atZone(zone).toEpochSecond();
+        if (splitSecond <= startSecond || splitSecond >= endSecond) {
             return Optional.empty();
         }
-        endTime = splitTime;
-        Event e1 = new Event(splitTime, Duration.between(startTime, splitTime), description);
+        long firstHalfSeconds = splitSecond - startSecond;
+        endSecond = splitSecond;
+        localSeconds = null;
+        Event e1 = new Event(splitSecond, splitSecond + firstHalfSeconds, zoneIndex(zone), description);
         return Optional.of(e1);
     }
 
+    /**
+     * Method to create an Event from its start and end.
+     *
+     * @param startTime   start, truncated to the second
+     * @param endTime     end, truncated to the second
+     * @param description description
+     * @return Event
+     * @throws IllegalArgumentException if the event is over 24 hours long
+     */
     public static Event of(ZonedDateTime startTime, ZonedDateTime endTime, String description) {
         return new Event(startTime, endTime, description);
     }
 
+    // an empty event at the second, to look up events in a set ordered by start
+    static Event probe(long epochSecond) {
+        return new Event(epochSecond, epochSecond, zoneIndex(ZoneOffset.UTC), "");
+    }
+
     @Override
     public int compareTo(Event evt) {
-        return startTime.toInstant().compareTo(evt.startTime.toInstant());
+        return Long.compare(startSecond, evt.startSecond);
     }
 
     /**
@@ -62,25 +104,99 @@ public class Event implements Comparable<Event> {
      * @return String
      */
     public String toString(ZoneId zone) {
-        Duration dur = Duration.between(startTime, endTime);
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT);
-        return ("\n\t" + description + ": "
-                + timeFormatter.format(startTime.withZoneSameInstant(zone))
-                + ", duration = " + Utils.formatDuration(dur));
+        StringBuilder sb = new StringBuilder("\n\t").append(description).append(": ");
+        ScheduleWriter.timeFormatter().formatTo(getLocalStartDateTime(zone), sb);
+        return Utils.appendDuration(sb.append(", duration = "), endSecond - startSecond).toString();
     }
 
     // methods in Event
 
+    public ZonedDateTime getStartTime() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(startSecond), zones[zoneIndex]);
+    }
+
+    public ZonedDateTime getEndTime() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(endSecond), zones[zoneIndex]);
+    }
+
     public LocalDateTime getLocalStartDateTime(ZoneId zone) {
-        return startTime.withZoneSameInstant(zone).toLocalDateTime();
+        return LocalDateTime.ofEpochSecond(getLocalStartSecond(zone), 0, ZoneOffset.UTC);
     }
 
     public LocalDateTime getLocalEndDateTime(ZoneId zone) {
-        return endTime.withZoneSameInstant(zone).toLocalDateTime();
+        return LocalDateTime.ofEpochSecond(getLocalEndSecond(zone), 0, ZoneOffset.UTC);
+    }
+
+    String getDescription() {
+        return description;
+    }
 
+    long getStartSecond() {
+        return startSecond;
+    }
+
+    long getEndSecond() {
+        return endSecond;
+    }
+
+    // local date-time in the zone as seconds since the local epoch, the form the schedulers compare in
+    long getLocalStartSecond(ZoneId zone) {
+        return localSeconds(zone).start;
+    }
+
+    long getLocalEndSecond(ZoneId zone) {
+        return localSeconds(zone).end;
+    }
+
+    // a sweep asks for both ends several times in the same zone, so they are converted once and kept
+    private LocalSeconds localSeconds(ZoneId zone) {
+        LocalSeconds seconds = localSeconds;
+        if (seconds == null || !seconds.zone.equals(zone)) {
+            seconds = new LocalSeconds(zone, startSecond + offsetSeconds(zone, startSecond),
+                    endSecond + offsetSeconds(zone, endSecond));
+            localSeconds = seconds;
+        }
+        return seconds;
+    }
+
+    static int offsetSeconds(ZoneId zone, long epochSecond) {
+        return zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
     }
 
     static Event copy(Event evt) {
-        return Event.of(evt.startTime, evt.endTime, evt.description);
+        Event copy = new Event(evt.startSecond, evt.endSecond, evt.zoneIndex, evt.description);
+        copy.localSeconds = evt.localSeconds;
+        return copy;
+    }
+
+    private static int zoneIndex(ZoneId zone) {
+        Integer index = ZONE_INDEXES.get(zone);
+        return index != null ? index : registerZone(zone);
+    }
+
+    private static synchronized int registerZone(ZoneId zone) {
+        Integer index = ZONE_INDEXES.get(zone);
+        if (index == null) {
+            index = zones.length;
+            ZoneId[] grown = Arrays.copyOf(zones, index + 1);
+            grown[index] = zone;
+            zones = grown;                           // published before the index can be looked up
+            ZONE_INDEXES.put(zone, index);
+        }
+        return index;
+    }
+
+    // immutable, so that threads sharing an Event always see a matching zone, start and end
+    private static final class LocalSeconds {
+
+        private final ZoneId zone;
+        private final long start;
+        private final long end;
+
+        LocalSeconds(ZoneId zone, long start, long end) {
+            this.zone = zone;
+            this.start = start;
+            this.end = end;
+        }
     }
 }
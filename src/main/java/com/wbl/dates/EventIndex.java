@@ -0,0 +1,144 @@
+package com.wbl.dates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Interval index over a calendar's events, answering overlap queries without scanning the events before them.
+ *
+ * <p>An AVL tree keyed, like the event set, by start instant, in which each node also holds the latest end in
+ * its subtree, so that subtrees ending before a query window are skipped. With events at most 24 hours long
+ * a query costs O(log n + k) for k overlapping events. The index follows the event set: events added through
+ * the calendar are inserted, and whenever the sizes no longer match (the set was changed directly, or a bulk
+ * load rebuilt it) the tree is rebuilt from the set, in linear time, at the next query.</p>
+ */
+final class EventIndex {
+
+    private Node root;
+    private int size;
+
+    /**
+     * Called after an event has been added to the set, which now has the given size.
+     */
+    synchronized void added(Event event, int setSize) {
+        if (size == setSize - 1) {
+            root = insert(root, event);
+            size++;
+        }
+    }
+
+    /**
+     * The events of the set that overlap the window, ordered by start.
+     */
+    synchronized List<Event> overlapping(NavigableSet<Event> events, long fromSecond, long toSecond) {
+        if (size != events.size()) {
+            Event[] sorted = events.toArray(new Event[0]);
+            root = build(sorted, 0, sorted.length);
+            size = sorted.length;
+        }
+        List<Event> result = new ArrayList<>();
+        collect(root, fromSecond, toSecond, result);
+        return result;
+    }
+
+    // in order, so that the result is ordered by start
+    private static void collect(Node node, long fromSecond, long toSecond, List<Event> result) {
+        if (node == null || node.maxEnd <= fromSecond) {
+            return;
+        }
+        collect(node.left, fromSecond, toSecond, result);
+        if (node.start < toSecond) {
+            if (node.end > fromSecond) {
+                result.add(node.event);
+            }
+            collect(node.right, fromSecond, toSecond, result);
+        }
+    }
+
+    private static Node build(Event[] sorted, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node node = new Node(sorted[middle]);
+        node.left = build(sorted, from, middle);
+        node.right = build(sorted, middle + 1, to);
+        return update(node);
+    }
+
+    private static Node insert(Node node, Event event) {
+        if (node == null) {
+            return update(new Node(event));
+        }
+        if (event.getStartSecond() < node.start) {
+            node.left = insert(node.left, event);
+        } else {
+            node.right = insert(node.right, event);
+        }
+        return balance(update(node));
+    }
+
+    private static Node balance(Node node) {
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        } else if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = update(node);
+        return update(pivot);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = update(node);
+        return update(pivot);
+    }
+
+    private static Node update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > node.maxEnd) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > node.maxEnd) {
+            node.maxEnd = node.right.maxEnd;
+        }
+        return node;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+
+        private final Event event;
+        private final long start;
+        private final long end;
+        private long maxEnd;                             // latest end in this subtree
+        private int height;
+        private Node left;
+        private Node right;
+
+        Node(Event event) {
+            this.event = event;
+            this.start = event.getStartSecond();
+            this.end = event.getEndSecond();
+        }
+    }
+}
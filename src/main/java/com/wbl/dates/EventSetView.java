@@ -0,0 +1,74 @@
+package com.wbl.dates;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Read-only view of a calendar's events together with the occurrences of its recurring events, ordered by start
+ * time, that the schedulers and Schedule read in place of the event set.
+ *
+ * <p>Occurrences are made as the view is navigated, each lookup asking the event set and every recurring event for
+ * its nearest candidate, so the view holds nothing but its sources and keeps following them as they grow. As in
+ * the event set, one event is kept per start instant: an event of the set comes before an occurrence, and an
+ * occurrence of an earlier recurring event before that of a later one.</p>
+ */
+final class EventSetView extends LazyNavigableSet<Event> {
+
+    private final NavigableSet<Event> events;
+    private final List<RecurringEvent> recurringEvents;
+
+    EventSetView(NavigableSet<Event> events, List<RecurringEvent> recurringEvents) {
+        this(events, recurringEvents, null, false, null, false);
+    }
+
+    private EventSetView(NavigableSet<Event> events, List<RecurringEvent> recurringEvents, Event low,
+                         boolean lowInclusive, Event high, boolean highInclusive) {
+        super(low, lowInclusive, high, highInclusive);
+        this.events = events;
+        this.recurringEvents = recurringEvents;
+    }
+
+    @Override
+    Event ceilingOf(Event event, boolean inclusive) {
+        long second = event.getStartSecond() + (inclusive ? 0 : 1);
+        Event first = events.ceiling(Event.probe(second));
+        for (RecurringEvent recurring : recurringEvents) {
+            Event occurrence = recurring.ceiling(second);
+            if (occurrence != null && (first == null || occurrence.getStartSecond() < first.getStartSecond())) {
+                first = occurrence;
+            }
+        }
+        return first;
+    }
+
+    @Override
+    Event floorOf(Event event, boolean inclusive) {
+        long second = event.getStartSecond() - (inclusive ? 0 : 1);
+        Event last = events.floor(Event.probe(second));
+        for (RecurringEvent recurring : recurringEvents) {
+            Event occurrence = recurring.floor(second);
+            if (occurrence != null && (last == null || occurrence.getStartSecond() > last.getStartSecond())) {
+                last = occurrence;
+            }
+        }
+        return last;
+    }
+
+    @Override
+    Event firstOf() {
+        return ceilingOf(Event.probe(LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC)), true);
+    }
+
+    @Override
+    Event lastOf() {
+        return floorOf(Event.probe(LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC)), true);
+    }
+
+    @Override
+    NavigableSet<Event> bounded(Event low, boolean lowInclusive, Event high, boolean highInclusive) {
+        return new EventSetView(events, recurringEvents, low, lowInclusive, high, highInclusive);
+    }
+}
@@ -0,0 +1,73 @@
+package com.wbl.dates;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * How much task time a calendar's free periods can take from any point in time on, answered in O(log n).
+ *
+ * <p>createSchedule fills each free period that is more than {@link WorkPeriod#MINIMUM_DURATION} long after the
+ * current time from its start, so the capacity from a time is the total length of the free periods from the first
+ * one ending more than the minimum duration after it. The free periods are cut once, their ends kept in order with
+ * suffix sums of the lengths that count, and the first period is found by binary search.</p>
+ *
+ * <p>A snapshot of the calendar: it remembers the zone and the number of work periods and events it was cut for,
+ * a work pattern and a recurring event counting as one each, so that a calendar can tell when it has to be cut
+ * again.</p>
+ */
+final class FreeCapacity {
+
+    private final ZoneId zone;
+    private final int workPeriodCount;
+    private final int eventCount;
+    private final LocalDateTime[] ends;       // ends of the free periods, in order
+    private final Duration[] capacityFrom;    // capacityFrom[i] is the schedulable time of periods i and later
+
+    FreeCapacity(NavigableSet<WorkPeriod> workPeriods, NavigableSet<Event> events, ZoneId zone, int workPeriodCount,
+                 int eventCount) {
+        this.zone = zone;
+        this.workPeriodCount = workPeriodCount;
+        this.eventCount = eventCount;
+        List<WorkPeriod> free = new ArrayList<>();
+        new FreePeriodIterator(workPeriods, events, zone).forEachRemaining(free::add);
+        ends = new LocalDateTime[free.size()];
+        capacityFrom = new Duration[free.size() + 1];
+        capacityFrom[free.size()] = Duration.ZERO;
+        for (int i = free.size() - 1; i >= 0; i--) {
+            WorkPeriod period = free.get(i);
+            Duration length = Duration.between(period.getStartTime(), period.getEndTime());
+            ends[i] = period.getEndTime();
+            capacityFrom[i] = WorkPeriod.MINIMUM_DURATION.minus(length).isNegative()
+                    ? capacityFrom[i + 1].plus(length)
+                    : capacityFrom[i + 1];
+        }
+    }
+
+    boolean isCurrent(ZoneId zone, int workPeriodCount, int eventCount) {
+        return this.zone.equals(zone) && this.workPeriodCount == workPeriodCount && this.eventCount == eventCount;
+    }
+
+    /**
+     * Task time that createSchedule could place at the given time.
+     */
+    Duration from(LocalDateTime now) {
+        // a period running at now counts in full as long as more than the minimum duration of it is left
+        LocalDateTime earliestEnd = now.plus(WorkPeriod.MINIMUM_DURATION);
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid].isAfter(earliestEnd)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return capacityFrom[low];
+    }
+}
@@ -0,0 +1,121 @@
+package com.wbl.dates;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily merges a calendar's work periods and events into the free periods that remain when the events are
+ * cut out of the work periods, in start time order.
+ *
+ * <p>The underlying sets are navigated in place and never copied or modified; only the free periods handed out
+ * are new objects. Iteration can start at any time: work periods and events that end before it are skipped
+ * with floor/ceiling lookups, and a work period running across it is cut at that time.</p>
+ */
+final class FreePeriodIterator implements Iterator<WorkPeriod> {
+
+    private final NavigableSet<WorkPeriod> workPeriods;
+    private final NavigableSet<Event> events;
+    private final ZoneId zone;
+
+    private WorkPeriod period;        // work period being cut, null when there are no more
+    private LocalDateTime start;      // start of the part of period not yet handed out or overwritten
+    private Event event;              // earliest event that may still overlap period, null when there are no more
+    private WorkPeriod next;
+
+    /**
+     * Iterates the free periods of the whole calendar.
+     */
+    FreePeriodIterator(NavigableSet<WorkPeriod> workPeriods, NavigableSet<Event> events, ZoneId zone) {
+        this.workPeriods = workPeriods;
+        this.events = events;
+        this.zone = zone;
+        setPeriod(workPeriods.isEmpty() ? null : workPeriods.first());
+        event = events.isEmpty() ? null : events.first();
+        next = advance();
+    }
+
+    /**
+     * Iterates the free periods from the given time on.
+     */
+    FreePeriodIterator(NavigableSet<WorkPeriod> workPeriods, NavigableSet<Event> events, ZoneId zone,
+                       LocalDateTime from) {
+        this.workPeriods = workPeriods;
+        this.events = events;
+        this.zone = zone;
+        WorkPeriod probe = new WorkPeriod(from, from);
+        WorkPeriod preceding = workPeriods.floor(probe);
+        if (preceding != null && preceding.getEndTime().isAfter(from)) {
+            period = preceding;
+            start = preceding.getStartTime().isBefore(from) ? from : preceding.getStartTime();
+        } else {
+            setPeriod(preceding == null ? workPeriods.ceiling(probe) : workPeriods.higher(preceding));
+        }
+        // events are at most 24 hours long, so none starting earlier than this can reach from
+        event = events.ceiling(Event.probe(from.atZone(zone).minusDays(2).toEpochSecond()));
+        next = advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public WorkPeriod next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        WorkPeriod result = next;
+        next = advance();
+        return result;
+    }
+
+    private WorkPeriod advance() {
+        while (period != null) {
+            LocalDateTime end = period.getEndTime();
+            if (event == null || compare(end, event.getLocalStartSecond(zone)) <= 0) {
+                // non-overlapping, period first
+                WorkPeriod free = new WorkPeriod(start, end);
+                setPeriod(workPeriods.higher(period));
+                return free;
+            } else if (compare(start, event.getLocalEndSecond(zone)) >= 0) {
+                // non-overlapping, event first
+                event = events.higher(event);
+            } else if (compare(start, event.getLocalStartSecond(zone)) < 0) {
+                // overlapping, period starts first
+                LocalDateTime eventStart = toLocalDateTime(event.getLocalStartSecond(zone));
+                WorkPeriod free = new WorkPeriod(start, eventStart);
+                start = eventStart;
+                return free;
+            } else if (compare(end, event.getLocalEndSecond(zone)) > 0) {
+                // overlapping, event starts first or at same time
+                start = toLocalDateTime(event.getLocalEndSecond(zone));
+                event = events.higher(event);
+            } else {
+                // event encloses period
+                setPeriod(workPeriods.higher(period));
+            }
+        }
+        return null;
+    }
+
+    // compares a work period time with an event time in local epoch seconds, without allocating
+    static int compare(LocalDateTime time, long localSecond) {
+        int bySecond = Long.compare(time.toEpochSecond(ZoneOffset.UTC), localSecond);
+        return bySecond != 0 || time.getNano() == 0 ? bySecond : 1;
+    }
+
+    static LocalDateTime toLocalDateTime(long localSecond) {
+        return LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+    }
+
+    private void setPeriod(WorkPeriod workPeriod) {
+        period = workPeriod;
+        start = workPeriod == null ? null : workPeriod.getStartTime();
+    }
+}
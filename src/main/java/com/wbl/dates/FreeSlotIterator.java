@@ -0,0 +1,95 @@
+package com.wbl.dates;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily finds the free slots of a calendar in a window: the parts of its free periods that are neither taken by
+ * events nor by the tasks createSchedule would put there.
+ *
+ * <p>Tasks fill the free periods from the work period running at "now", so the periods are walked from there
+ * only while tasks remain to be placed. After that the walk jumps to the window with a floor/ceiling lookup,
+ * and it stops at the first free period past the window.</p>
+ */
+final class FreeSlotIterator implements Iterator<WorkPeriod> {
+
+    private final NavigableSet<WorkPeriod> workPeriods;
+    private final NavigableSet<Event> events;
+    private final ZoneId zone;
+    private final LocalDateTime now;
+    private final LocalDateTime windowStart;
+    private final LocalDateTime windowEnd;
+    private final Duration minimumDuration;
+
+    private Iterator<WorkPeriod> freePeriods;
+    private LocalDateTime position;                  // end of the last free period walked
+    private Duration unplacedTaskTime;
+    private WorkPeriod next;
+
+    FreeSlotIterator(NavigableSet<WorkPeriod> workPeriods, NavigableSet<Event> events, ZoneId zone,
+                     LocalDateTime now, LocalDateTime packFrom, Duration taskTime,
+                     LocalDateTime from, LocalDateTime to, Duration minimumDuration) {
+        this.workPeriods = workPeriods;
+        this.events = events;
+        this.zone = zone;
+        this.now = now;
+        this.windowStart = from.isAfter(now) ? from : now;
+        this.windowEnd = to;
+        this.minimumDuration = minimumDuration;
+        this.freePeriods = new FreePeriodIterator(workPeriods, events, zone, packFrom);
+        this.position = packFrom;
+        this.unplacedTaskTime = taskTime;
+        next = advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public WorkPeriod next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        WorkPeriod result = next;
+        next = advance();
+        return result;
+    }
+
+    private WorkPeriod advance() {
+        while (true) {
+            if (unplacedTaskTime.isZero() && windowStart.isAfter(position)) {
+                // nothing before the window matters any more
+                freePeriods = new FreePeriodIterator(workPeriods, events, zone, windowStart);
+                position = windowStart;
+            }
+            if (!freePeriods.hasNext()) {
+                return null;
+            }
+            WorkPeriod period = freePeriods.next();
+            if (!period.getStartTime().isBefore(windowEnd)) {
+                return null;
+            }
+            position = period.getEndTime();
+            LocalDateTime slotStart = period.getStartTime();
+            if (!unplacedTaskTime.isZero() && Calendar.isSchedulable(period, now)) {
+                // tasks are packed from the start of the period, as in createSchedule
+                Duration placed = Duration.between(period.getStartTime(), period.getEndTime());
+                placed = placed.compareTo(unplacedTaskTime) < 0 ? placed : unplacedTaskTime;
+                unplacedTaskTime = unplacedTaskTime.minus(placed);
+                slotStart = slotStart.plus(placed);
+            }
+            slotStart = slotStart.isBefore(windowStart) ? windowStart : slotStart;
+            LocalDateTime slotEnd = period.getEndTime().isAfter(windowEnd) ? windowEnd : period.getEndTime();
+            if (slotEnd.isAfter(slotStart) && Duration.between(slotStart, slotEnd).compareTo(minimumDuration) >= 0) {
+                return new WorkPeriod(slotStart, slotEnd);
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.wbl.dates;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Read-only NavigableSet whose elements are looked up rather than stored, for the calendar views that make work
+ * periods and events from rules as the schedulers walk them.
+ *
+ * <p>A subclass answers the four nearest-element lookups over its whole content; bounds, iteration and the
+ * subset and descending views are built on them here. Elements are ordered by their natural order, and size()
+ * counts them one by one, so callers walking the set should not ask for it first. The views cannot be changed:
+ * pollFirst and pollLast throw UnsupportedOperationException.</p>
+ *
+ * @param <E> element type
+ */
+abstract class LazyNavigableSet<E extends Comparable<? super E>> extends AbstractSet<E> implements NavigableSet<E> {
+
+    private final E low;                       // null when unbounded
+    private final boolean lowInclusive;
+    private final E high;                      // null when unbounded
+    private final boolean highInclusive;
+
+    LazyNavigableSet(E low, boolean lowInclusive, E high, boolean highInclusive) {
+        this.low = low;
+        this.lowInclusive = lowInclusive;
+        this.high = high;
+        this.highInclusive = highInclusive;
+    }
+
+    // least element greater than, or with inclusive equal to, the given one, ignoring the bounds
+    abstract E ceilingOf(E element, boolean inclusive);
+
+    // greatest element less than, or with inclusive equal to, the given one, ignoring the bounds
+    abstract E floorOf(E element, boolean inclusive);
+
+    abstract E firstOf();
+
+    abstract E lastOf();
+
+    // the same content within the given bounds, which are already intersected with this set's
+    abstract NavigableSet<E> bounded(E low, boolean lowInclusive, E high, boolean highInclusive);
+
+    private boolean tooLow(E element) {
+        int cmp = low == null ? 1 : element.compareTo(low);
+        return cmp < 0 || cmp == 0 && !lowInclusive;
+    }
+
+    private boolean tooHigh(E element) {
+        int cmp = high == null ? -1 : element.compareTo(high);
+        return cmp > 0 || cmp == 0 && !highInclusive;
+    }
+
+    private E lowest() {
+        E first = low == null ? firstOf() : ceilingOf(low, lowInclusive);
+        return first == null || tooHigh(first) ? null : first;
+    }
+
+    private E highest() {
+        E last = high == null ? lastOf() : floorOf(high, highInclusive);
+        return last == null || tooLow(last) ? null : last;
+    }
+
+    private E above(E element, boolean inclusive) {
+        if (tooLow(element)) {
+            return lowest();
+        }
+        E found = ceilingOf(element, inclusive);
+        return found == null || tooHigh(found) ? null : found;
+    }
+
+    private E below(E element, boolean inclusive) {
+        if (tooHigh(element)) {
+            return highest();
+        }
+        E found = floorOf(element, inclusive);
+        return found == null || tooLow(found) ? null : found;
+    }
+
+    @Override
+    public E lower(E element) {
+        return below(element, false);
+    }
+
+    @Override
+    public E floor(E element) {
+        return below(element, true);
+    }
+
+    @Override
+    public E ceiling(E element) {
+        return above(element, true);
+    }
+
+    @Override
+    public E higher(E element) {
+        return above(element, false);
+    }
+
+    @Override
+    public E first() {
+        E first = lowest();
+        if (first == null) {
+            throw new NoSuchElementException();
+        }
+        return first;
+    }
+
+    @Override
+    public E last() {
+        E last = highest();
+        if (last == null) {
+            throw new NoSuchElementException();
+        }
+        return last;
+    }
+
+    @Override
+    public E pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public E pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        // as in TreeSet, an object of another type fails with a ClassCastException
+        E found = ceiling((E) o);
+        return found != null && found.compareTo((E) o) == 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lowest() == null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Iterator<E> it = iterator(); it.hasNext(); it.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Walk(lowest(), true);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new Walk(highest(), false);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        // not sized, since counting would make every element
+        return Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return new Descending();
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (fromElement.compareTo(toElement) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return headSet(toElement, toInclusive).tailSet(fromElement, fromInclusive);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        int cmp = high == null ? -1 : toElement.compareTo(high);
+        return cmp < 0 || cmp == 0 && !inclusive
+                ? bounded(low, lowInclusive, toElement, inclusive)
+                : bounded(low, lowInclusive, high, highInclusive);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        int cmp = low == null ? 1 : fromElement.compareTo(low);
+        return cmp > 0 || cmp == 0 && !inclusive
+                ? bounded(fromElement, inclusive, high, highInclusive)
+                : bounded(low, lowInclusive, high, highInclusive);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return null;
+    }
+
+    // the same elements in reverse order, each lookup answered by its mirror image on this set
+    private final class Descending extends AbstractSet<E> implements NavigableSet<E> {
+
+        @Override
+        public E lower(E element) {
+            return LazyNavigableSet.this.higher(element);
+        }
+
+        @Override
+        public E floor(E element) {
+            return LazyNavigableSet.this.ceiling(element);
+        }
+
+        @Override
+        public E ceiling(E element) {
+            return LazyNavigableSet.this.floor(element);
+        }
+
+        @Override
+        public E higher(E element) {
+            return LazyNavigableSet.this.lower(element);
+        }
+
+        @Override
+        public E first() {
+            return LazyNavigableSet.this.last();
+        }
+
+        @Override
+        public E last() {
+            return LazyNavigableSet.this.first();
+        }
+
+        @Override
+        public E pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return LazyNavigableSet.this.contains(o);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return LazyNavigableSet.this.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return LazyNavigableSet.this.size();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return LazyNavigableSet.this.descendingIterator();
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return LazyNavigableSet.this.iterator();
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return LazyNavigableSet.this;
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return LazyNavigableSet.this.subSet(toElement, toInclusive, fromElement, fromInclusive).descendingSet();
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return LazyNavigableSet.this.tailSet(toElement, inclusive).descendingSet();
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return LazyNavigableSet.this.headSet(fromElement, inclusive).descendingSet();
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return Collections.reverseOrder();
+        }
+    }
+
+    // steps from element to element by the bounded lookups
+    private final class Walk implements Iterator<E> {
+
+        private final boolean ascending;
+        private E next;
+
+        Walk(E first, boolean ascending) {
+            this.next = first;
+            this.ascending = ascending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            E element = next;
+            next = ascending ? above(element, false) : below(element, false);
+            return element;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.wbl.dates;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAdjusters;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A rule giving the dates something recurs on, such as every weekday or the first Monday of each month, that
+ * finds the n-th date from any date, and the dates within any range, without stepping through those before.
+ *
+ * <p>Each rule numbers its dates from a fixed origin and converts between dates and their numbers in closed form:
+ * by whole weeks for rules on days of the week, by months for rules picking a day of each month, and for business
+ * days with the binary search over holidays of {@link BusinessCalendar}. As a TemporalAdjuster a Recurrence moves
+ * a date to the next date of the rule after it, so it can stand wherever the next date was found by an adjuster;
+ * RecurringEvent then jumps to the occurrences it needs instead of stepping to them.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public abstract class Recurrence implements TemporalAdjuster {
+
+    private static final int MONTHS_PER_YEAR = 12;
+
+    // dates of the rule before the given one, counted from the rule's origin
+    abstract long indexOf(LocalDate date);
+
+    // date of the rule with the given number
+    abstract LocalDate dateAt(long index);
+
+    /**
+     * Method to get a rule recurring every day.
+     *
+     * @return Recurrence
+     */
+    public static Recurrence daily() {
+        return weekly(DayOfWeek.values());
+    }
+
+    /**
+     * Method to get a rule recurring on some days of every week.
+     *
+     * @param days days of the week
+     * @return Recurrence
+     * @throws IllegalArgumentException if no day is given
+     */
+    public static Recurrence weekly(DayOfWeek... days) {
+        if (days.length == 0) {
+            throw new IllegalArgumentException("A weekly rule needs a day of the week");
+        }
+        return businessDays(new BusinessCalendar(EnumSet.complementOf(EnumSet.copyOf(Arrays.asList(days))),
+                Collections.emptySet()));
+    }
+
+    /**
+     * Method to get a rule recurring on the working days of a BusinessCalendar.
+     *
+     * @param calendar BusinessCalendar
+     * @return Recurrence
+     */
+    public static Recurrence businessDays(BusinessCalendar calendar) {
+        return new WorkingDays(calendar);
+    }
+
+    /**
+     * Method to get a rule recurring once a month, on the day an adjuster picks from the first of the month, for
+     * example TemporalAdjusters.lastDayOfMonth(). The adjuster must keep to the month.
+     *
+     * @param dayInMonth picks the day from the first of the month
+     * @return Recurrence
+     */
+    public static Recurrence monthly(TemporalAdjuster dayInMonth) {
+        return new Monthly(dayInMonth);
+    }
+
+    /**
+     * Method to get a rule recurring on the first given day of the week of every month.
+     *
+     * @param day day of the week
+     * @return Recurrence
+     */
+    public static Recurrence firstInMonth(DayOfWeek day) {
+        return monthly(TemporalAdjusters.firstInMonth(day));
+    }
+
+    /**
+     * Method to get a rule recurring on the last given day of the week of every month.
+     *
+     * @param day day of the week
+     * @return Recurrence
+     */
+    public static Recurrence lastInMonth(DayOfWeek day) {
+        return monthly(TemporalAdjusters.lastInMonth(day));
+    }
+
+    /**
+     * Method to get a date of the rule by its position from a date, in O(1), or O(log h) for business days with
+     * h holidays.
+     *
+     * @param from  Date
+     * @param index 0 for the first date of the rule on or after from, 1 for the next; -1 for the last before from
+     * @return LocalDate
+     */
+    public LocalDate occurrence(LocalDate from, long index) {
+        return dateAt(indexOf(from) + index);
+    }
+
+    /**
+     * Method to count the dates of the rule in a range, the first date counted and the second not.
+     *
+     * @param from first date
+     * @param to   date after the last
+     * @return the number of dates, negative if to is before from
+     */
+    public long count(LocalDate from, LocalDate to) {
+        return indexOf(to) - indexOf(from);
+    }
+
+    /**
+     * Method to get the dates of the rule in a range, the first date included and the second not.
+     *
+     * <p>The stream knows its exact size and splits evenly, so it runs in parallel as well as a range of
+     * numbers does.</p>
+     *
+     * @param from first date
+     * @param to   date after the last
+     * @return dates in order, found as the stream is consumed
+     */
+    public Stream<LocalDate> between(LocalDate from, LocalDate to) {
+        long start = indexOf(from);
+        return StreamSupport.stream(new DateSpliterator(this, start, Math.max(start, indexOf(to))), false);
+    }
+
+    /**
+     * Method to get a number of dates of the rule, from the first on or after a date. Like between, the stream is
+     * sized and splits evenly.
+     *
+     * @param from  Date
+     * @param count number of dates
+     * @return dates in order, found as the stream is consumed
+     */
+    public Stream<LocalDate> occurrences(LocalDate from, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative: " + count);
+        }
+        long start = indexOf(from);
+        return StreamSupport.stream(new DateSpliterator(this, start, start + count), false);
+    }
+
+    /**
+     * Moves the date to the next date of the rule after it.
+     */
+    @Override
+    public Temporal adjustInto(Temporal temporal) {
+        return temporal.with(occurrence(LocalDate.from(temporal).plusDays(1), 0));
+    }
+
+    // the working days of a business calendar, or days of the week as a calendar without holidays
+    private static final class WorkingDays extends Recurrence {
+
+        private final BusinessCalendar calendar;
+
+        WorkingDays(BusinessCalendar calendar) {
+            this.calendar = calendar;
+        }
+
+        @Override
+        long indexOf(LocalDate date) {
+            return calendar.workingDaysBefore(date.toEpochDay());
+        }
+
+        @Override
+        LocalDate dateAt(long index) {
+            return LocalDate.ofEpochDay(calendar.workingDayAt(index));
+        }
+    }
+
+    // one day a month, numbered by the month since year 0
+    private static final class Monthly extends Recurrence {
+
+        private final TemporalAdjuster dayInMonth;
+
+        Monthly(TemporalAdjuster dayInMonth) {
+            this.dayInMonth = dayInMonth;
+        }
+
+        @Override
+        long indexOf(LocalDate date) {
+            long month = date.getYear() * (long) MONTHS_PER_YEAR + date.getMonthValue() - 1;
+            return dateAt(month).isBefore(date) ? month + 1 : month;
+        }
+
+        @Override
+        LocalDate dateAt(long index) {
+            YearMonth month = YearMonth.of(Math.toIntExact(Math.floorDiv(index, MONTHS_PER_YEAR)),
+                    (int) Math.floorMod(index, MONTHS_PER_YEAR) + 1);
+            LocalDate date = month.atDay(1).with(dayInMonth);
+            if (!YearMonth.from(date).equals(month)) {
+                throw new IllegalStateException("Monthly rule left " + month + " for " + date);
+            }
+            return date;
+        }
+    }
+}
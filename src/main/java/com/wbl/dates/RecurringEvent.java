@@ -0,0 +1,235 @@
+package com.wbl.dates;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalAdjusters;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An event that repeats by a rule: from a first start, on each date the rule gives after the last, at the same
+ * local time and for the same duration, up to a last date, except on the dates excluded.
+ *
+ * <p>A Calendar keeps the rule rather than its occurrences, and makes an occurrence only when scheduling or
+ * rendering reaches it, so a recurring meeting takes the same memory whatever its horizon. When the rule is a
+ * {@link Recurrence} the occurrence for a time is found directly; for other adjusters the rule is stepped from the
+ * first date, or from the furthest date reached so far.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public final class RecurringEvent {
+
+    private static final DayOfWeek[] WEEKDAYS = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)
+            .toArray(new DayOfWeek[0]);
+
+    private final LocalDate firstDate;
+    private final LocalTime time;
+    private final ZoneId zone;
+    private final Duration duration;
+    private final String description;
+    private final TemporalAdjuster nextDate;
+    private final Recurrence recurrence;             // nextDate when it is one, else null
+    private final LocalDate lastDate;
+    private final Set<LocalDate> exceptions;
+    private volatile LocalDate reached;              // a date of the rule reached before, to step on from
+
+    /**
+     * Parameterized Constructor.
+     *
+     * @param firstStart  start of the first occurrence
+     * @param duration    duration of each occurrence
+     * @param description description
+     * @param nextDate    gives the date of the next occurrence from that of the last, such as a Recurrence
+     * @param lastDate    last date an occurrence may fall on
+     */
+    public RecurringEvent(ZonedDateTime firstStart, Duration duration, String description, TemporalAdjuster nextDate,
+                          LocalDate lastDate) {
+        this(firstStart, duration, description, nextDate, lastDate, Collections.emptySet());
+    }
+
+    private RecurringEvent(ZonedDateTime firstStart, Duration duration, String description,
+                           TemporalAdjuster nextDate, LocalDate lastDate, Set<LocalDate> exceptions) {
+        if (duration.compareTo(Duration.ofDays(1)) > 0) {
+            // display code doesn't cover this unlikely case
+            throw new IllegalArgumentException("Events may not be more than 24 hours long");
+        } else if (duration.isNegative()) {
+            throw new IllegalArgumentException("Duration cannot be negative: " + duration);
+        }
+        this.firstDate = firstStart.toLocalDate();
+        this.time = firstStart.toLocalTime();
+        this.zone = firstStart.getZone();
+        this.duration = duration;
+        this.description = description;
+        this.nextDate = nextDate;
+        this.recurrence = nextDate instanceof Recurrence ? (Recurrence) nextDate : null;
+        this.lastDate = lastDate;
+        this.exceptions = exceptions;
+        this.reached = firstDate;
+    }
+
+    /**
+     * Method to create an event repeating every day.
+     *
+     * @param firstStart  start of the first occurrence
+     * @param duration    duration of each occurrence
+     * @param description description
+     * @param lastDate    last date an occurrence may fall on
+     * @return RecurringEvent
+     */
+    public static RecurringEvent daily(ZonedDateTime firstStart, Duration duration, String description,
+                                       LocalDate lastDate) {
+        return new RecurringEvent(firstStart, duration, description, Recurrence.daily(), lastDate);
+    }
+
+    /**
+     * Method to create an event repeating every week on the day of the week of its first start.
+     *
+     * @param firstStart  start of the first occurrence
+     * @param duration    duration of each occurrence
+     * @param description description
+     * @param lastDate    last date an occurrence may fall on
+     * @return RecurringEvent
+     */
+    public static RecurringEvent weekly(ZonedDateTime firstStart, Duration duration, String description,
+                                        LocalDate lastDate) {
+        return new RecurringEvent(firstStart, duration, description, Recurrence.weekly(firstStart.getDayOfWeek()),
+                lastDate);
+    }
+
+    /**
+     * Method to create an event repeating every day from Monday to Friday, as Utils.generateStandups makes them.
+     * A first start at a weekend moves to the following Monday.
+     *
+     * @param firstStart  start of the first occurrence
+     * @param duration    duration of each occurrence
+     * @param description description
+     * @param lastDate    last date an occurrence may fall on
+     * @return RecurringEvent
+     */
+    public static RecurringEvent weekdays(ZonedDateTime firstStart, Duration duration, String description,
+                                          LocalDate lastDate) {
+        LocalDate first = firstStart.getDayOfWeek().getValue() > DayOfWeek.FRIDAY.getValue()
+                ? firstStart.toLocalDate().with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                : firstStart.toLocalDate();
+        return new RecurringEvent(ZonedDateTime.of(first, firstStart.toLocalTime(), firstStart.getZone()), duration,
+                description, Recurrence.weekly(WEEKDAYS), lastDate);
+    }
+
+    /**
+     * Method to leave out the occurrences on some dates, for example holidays or meetings moved elsewhere.
+     *
+     * @param dates dates without an occurrence
+     * @return a RecurringEvent like this one without those occurrences
+     */
+    public RecurringEvent except(LocalDate... dates) {
+        Set<LocalDate> excluded = new HashSet<>(exceptions);
+        excluded.addAll(Arrays.asList(dates));
+        return new RecurringEvent(ZonedDateTime.of(firstDate, time, zone), duration, description, nextDate,
+                lastDate, Collections.unmodifiableSet(excluded));
+    }
+
+    /**
+     * Method to get the first occurrence starting at or after a time.
+     *
+     * @param time Time
+     * @return Event, or null if there is none
+     */
+    public Event ceiling(ZonedDateTime time) {
+        return ceiling(time.toEpochSecond());
+    }
+
+    Event first() {
+        return ceiling(Long.MIN_VALUE);
+    }
+
+    // first occurrence starting at or after the second
+    Event ceiling(long epochSecond) {
+        // local times move by less than a day, so no occurrence on an earlier date can start at or after it
+        LocalDate date = epochSecond <= startSecond(firstDate)
+                ? firstOnOrAfter(firstDate)
+                : firstOnOrAfter(dateOf(epochSecond).minusDays(1));
+        while (date != null && (startSecond(date) < epochSecond || exceptions.contains(date))) {
+            date = following(date);
+        }
+        return date == null ? null : occurrence(date);
+    }
+
+    // last occurrence starting at or before the second
+    Event floor(long epochSecond) {
+        LocalDate date = epochSecond >= startSecond(lastDate)
+                ? lastOnOrBefore(lastDate)
+                : lastOnOrBefore(dateOf(epochSecond).plusDays(1));
+        while (date != null && (startSecond(date) > epochSecond || exceptions.contains(date))) {
+            date = lastOnOrBefore(date.minusDays(1));
+        }
+        return date == null ? null : occurrence(date);
+    }
+
+    private Event occurrence(LocalDate date) {
+        ZonedDateTime start = ZonedDateTime.of(date, time, zone);
+        return Event.of(start, start.plus(duration), description);
+    }
+
+    private long startSecond(LocalDate date) {
+        return ZonedDateTime.of(date, time, zone).toEpochSecond();
+    }
+
+    private LocalDate dateOf(long epochSecond) {
+        return Instant.ofEpochSecond(epochSecond).atZone(zone).toLocalDate();
+    }
+
+    // date of the rule after the given one, or null past the last date
+    private LocalDate following(LocalDate date) {
+        LocalDate next = date.with(nextDate);
+        if (!next.isAfter(date)) {
+            throw new IllegalStateException("Recurrence does not move forward from " + date);
+        }
+        return next.isAfter(lastDate) ? null : next;
+    }
+
+    // first date of the rule on or after the target, or null if there is none
+    private LocalDate firstOnOrAfter(LocalDate target) {
+        if (!target.isAfter(firstDate)) {
+            return firstDate.isAfter(lastDate) ? null : firstDate;
+        } else if (recurrence != null) {
+            LocalDate date = recurrence.occurrence(target, 0);
+            return date.isAfter(lastDate) ? null : date;
+        }
+        LocalDate start = reached;
+        LocalDate date = start.isAfter(target) ? firstDate : start;
+        while (date != null && date.isBefore(target)) {
+            date = following(date);
+        }
+        if (date != null && date.isAfter(start)) {
+            reached = date;
+        }
+        return date;
+    }
+
+    // last date of the rule on or before the target, or null if there is none
+    private LocalDate lastOnOrBefore(LocalDate target) {
+        LocalDate bound = target.isAfter(lastDate) ? lastDate : target;
+        if (bound.isBefore(firstDate)) {
+            return null;
+        } else if (recurrence != null) {
+            LocalDate date = recurrence.occurrence(bound.plusDays(1), -1);
+            return date.isAfter(firstDate) ? date : firstDate;
+        }
+        LocalDate start = reached;
+        LocalDate date = start.isAfter(bound) ? firstDate : start;
+        for (LocalDate next = following(date); next != null && !next.isAfter(bound); next = following(next)) {
+            date = next;
+        }
+        return date;
+    }
+}
@@ -1,36 +1,65 @@
 package com.wbl.dates;
 
+import static java.time.temporal.ChronoUnit.DAYS;
 import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Schedule {
 
     private final ZoneId zoneId;
-    private final List<WorkPeriod> scheduledPeriods;
+    private final List<WorkPeriod> scheduledPeriods;         // all of them, or those produced so far if lazy
     private final NavigableSet<Event> events;
+    private PeriodSource source;                             // produces the rest of a lazy schedule, else null
+    // index in scheduledPeriods of the first period with a piece on each day, kept as periods are added
+    private final NavigableMap<LocalDate, Integer> periodDays = new TreeMap<>();
 
-    public List<WorkPeriod> getScheduledPeriods() {
+    /**
+     * Method to get the scheduled periods. A lazy Schedule produces all of its periods first, once.
+     *
+     * @return List of Periods, ordered by start time
+     */
+    public synchronized List<WorkPeriod> getScheduledPeriods() {
+        while (produceNext()) {
+            // keep producing
+        }
         return scheduledPeriods;
     }
 
-    public boolean isSuccessful() {
-        return successful;
+    /**
+     * Method to tell whether all the tasks were scheduled. A lazy Schedule produces periods until they are.
+     *
+     * @return true/false
+     */
+    public synchronized boolean isSuccessful() {
+        while (source != null && !source.isDone() && produceNext()) {
+            // keep producing
+        }
+        return source == null ? successful : source.isDone();
     }
 
-    private final boolean successful;
+    private boolean successful;
 
     /**
      * Parameterized Constructor.
@@ -45,51 +74,208 @@ public class Schedule {
         this.scheduledPeriods = scheduledPeriods;
         this.events = events;
         this.successful = success;
+        for (int i = 0; i < scheduledPeriods.size(); i++) {
+            indexPeriod(i);
+        }
     }
 
-    @Override
-    public String toString() {
+    // a Schedule whose periods are produced from the source as they are asked for
+    Schedule(ZoneId zoneId, PeriodSource source, NavigableSet<Event> events) {
+        this(zoneId, new ArrayList<>(), events, false);
+        this.source = source;
+    }
 
-        if (!successful) {
-            return "Schedule unsuccessful: insufficent time for tasks";
-        }
+    /**
+     * Method to stream the scheduled periods. The periods of a lazy Schedule are produced only as far as the
+     * stream is consumed, and kept for later streams.
+     *
+     * @return scheduled periods, ordered by start time
+     */
+    public Stream<WorkPeriod> stream() {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<WorkPeriod>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int index;
 
-        List<WorkPeriod> printablePeriods = scheduledPeriods.stream().map(WorkPeriod::copy).collect(toList());
-        List<WorkPeriod> periodSplitByMidnight = printablePeriods.stream()
-                .map(WorkPeriod::split)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(toList());
-        printablePeriods.addAll(periodSplitByMidnight);
+            @Override
+            public boolean tryAdvance(Consumer<? super WorkPeriod> action) {
+                WorkPeriod period = periodAt(index);
+                if (period == null) {
+                    return false;
+                }
+                index++;
+                action.accept(period);
+                return true;
+            }
+        }, false);
+    }
 
-        NavigableMap<LocalDateTime, String> dateTimeToPeriodOutput = printablePeriods.stream()
-                .collect(groupingBy(WorkPeriod::getStartTime, TreeMap::new, mapping(WorkPeriod::toString, joining())));
+    private synchronized WorkPeriod periodAt(int index) {
+        return index < scheduledPeriods.size() || produceNext() ? scheduledPeriods.get(index) : null;
+    }
 
-        List<Event> printableEvents = events.stream().map(Event::copy).collect(toList());
-        List<Event> eventsSplitByMidnight = printableEvents.stream()
-                .map(e -> e.split(zoneId))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(toList());
-        printableEvents.addAll(eventsSplitByMidnight);
+    // moves one period from the source, if there is one; called holding the lock
+    private boolean produceNext() {
+        if (source == null) {
+            return false;
+        } else if (!source.hasNext()) {
+            successful = source.isDone();
+            source = null;
+            return false;
+        }
+        scheduledPeriods.add(source.next());
+        indexPeriod(scheduledPeriods.size() - 1);
+        return true;
+    }
 
-        Map<LocalDateTime, String> dateTimeToEventOutput = printableEvents.stream()
-                .collect(groupingBy(e -> e.getLocalStartDateTime(zoneId), mapping(e -> e.toString(zoneId), joining())));
+    // a period has a piece on the day it starts and, if it runs to or past midnight, on the next
+    private void indexPeriod(int index) {
+        WorkPeriod period = scheduledPeriods.get(index);
+        LocalDate date = period.getStartTime().toLocalDate();
+        periodDays.putIfAbsent(date, index);
+        if (!period.getStartTime().plusDays(1).truncatedTo(DAYS).isAfter(period.getEndTime())) {
+            periodDays.putIfAbsent(date.plusDays(1), index);
+        }
+    }
 
-        dateTimeToPeriodOutput.putAll(dateTimeToEventOutput);
+    /**
+     * Method to get a day of the Schedule. Only the periods and events of the day are read, and a lazy Schedule
+     * produces its periods up to the day.
+     *
+     * @param date Date
+     * @return the day, or empty if no period or event falls on it
+     */
+    public synchronized Optional<DayView> day(LocalDate date) {
+        return Optional.ofNullable(days(date, date.plusDays(1)).get(date));
+    }
 
-        NavigableMap<LocalDate, String> dateToCalendarObjectOutput = dateTimeToPeriodOutput.entrySet().stream()
-                .collect(groupingBy(e -> e.getKey().toLocalDate(),
-                        TreeMap::new, mapping(Map.Entry::getValue, joining())));
+    /**
+     * Method to get the days of the Schedule in a range. Only the periods and events of those days are read, and
+     * a lazy Schedule produces its periods up to the end of the range.
+     *
+     * @param fromDate first day of the range
+     * @param toDate   day after the range
+     * @return days on which a period or event falls, by date
+     */
+    public synchronized NavigableMap<LocalDate, DayView> slice(LocalDate fromDate, LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("Range cannot end before it starts: " + fromDate + "," + toDate);
+        }
+        return Collections.unmodifiableNavigableMap(days(fromDate, toDate));
+    }
 
-        StringBuilder sb = new StringBuilder();
+    /**
+     * Method to write the Schedule by the day, as toString shows it.
+     *
+     * <p>Periods and events are merged in one pass in order of start time and written as they are reached,
+     * without copying them, and a lazy Schedule is read as it is written.</p>
+     *
+     * @param out where to write
+     * @throws IOException if out does
+     */
+    public void writeTo(Appendable out) throws IOException {
+        if (!isSuccessful()) {
+            out.append("Schedule unsuccessful: insufficent time for tasks");
+            return;
+        }
+        new ScheduleWriter(zoneId).write(stream().iterator(), events.iterator(), out);
+    }
 
-        for (LocalDate date : dateToCalendarObjectOutput.keySet()) {
-            sb.append("\n");
-            sb.append(date);
-            sb.append(dateToCalendarObjectOutput.get(date));
+    /**
+     * Method to write the Schedule as writeTo does, rendering chunks of days in parallel on the given pool and
+     * appending them in date order. The output is the same as that of writeTo.
+     *
+     * @param out  where to write
+     * @param pool pool the chunks are rendered on
+     * @throws IOException if out does
+     */
+    public void writeTo(Appendable out, ForkJoinPool pool) throws IOException {
+        if (!isSuccessful()) {
+            out.append("Schedule unsuccessful: insufficent time for tasks");
+            return;
         }
+        ScheduleWriter.writeInChunks(zoneId, getScheduledPeriods(), events, out, pool);
+    }
 
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         return sb.toString();
     }
+
+    // the days from fromDate (inclusive) to toDate (exclusive) on which a period or event falls; called holding
+    // the lock
+    private NavigableMap<LocalDate, DayView> days(LocalDate fromDate, LocalDate toDate) {
+        while (source != null && (scheduledPeriods.isEmpty() || scheduledPeriods.get(scheduledPeriods.size() - 1)
+                .getStartTime().toLocalDate().isBefore(toDate)) && produceNext()) {
+            // keep producing
+        }
+        NavigableMap<LocalDate, List<Event>> eventsByDate = eventPieces(fromDate, toDate);
+        NavigableSet<LocalDate> dates = new TreeSet<>(periodDays.subMap(fromDate, true, toDate, false).keySet());
+        dates.addAll(eventsByDate.keySet());
+        NavigableMap<LocalDate, DayView> days = new TreeMap<>();
+        for (LocalDate date : dates) {
+            days.put(date, new DayView(date, periodPieces(date),
+                    eventsByDate.getOrDefault(date, Collections.emptyList()),
+                    ScheduleWriter.writeChunk(zoneId, scheduledPeriods, events, date.atStartOfDay(),
+                            date.plusDays(1).atStartOfDay())));
+        }
+        return days;
+    }
+
+    // the pieces of the periods on the day, split at midnight on copies, leaving the schedule itself untouched
+    private List<WorkPeriod> periodPieces(LocalDate date) {
+        List<WorkPeriod> pieces = new ArrayList<>();
+        Integer first = periodDays.get(date);
+        for (int i = first == null ? scheduledPeriods.size() : first; i < scheduledPeriods.size(); i++) {
+            WorkPeriod period = scheduledPeriods.get(i);
+            if (period.getStartTime().toLocalDate().isAfter(date)) {
+                break;
+            }
+            WorkPeriod copy = new WorkPeriod(period.getStartTime(), period.getEndTime(),
+                    period.getTaskParts().stream().map(TaskPart::copy).collect(toList()));
+            Optional<WorkPeriod> head = copy.split();
+            if (period.getStartTime().toLocalDate().equals(date)) {
+                pieces.add(head.orElse(copy));
+            } else if (head.isPresent()) {
+                pieces.add(copy);
+            }
+        }
+        return pieces;
+    }
+
+    // the events and their halves after midnight starting on the days, split on copies, by date
+    private NavigableMap<LocalDate, List<Event>> eventPieces(LocalDate fromDate, LocalDate toDate) {
+        // events are at most a day long, so only those starting from the day before the range can reach into it
+        Event earliest = Event.probe(fromDate.atStartOfDay(zoneId).minusDays(2).toEpochSecond());
+        Event latest = Event.probe(toDate.atStartOfDay(zoneId).plusDays(1).toEpochSecond());
+        List<Event> pieces = new ArrayList<>();
+        List<Event> halves = new ArrayList<>();
+        for (Event event : events.subSet(earliest, true, latest, false)) {
+            Event piece = Event.copy(event);
+            piece.split(zoneId).ifPresent(halves::add);
+            pieces.add(piece);
+        }
+        pieces.addAll(halves);
+        return pieces.stream()
+                .filter(e -> !e.getLocalStartDateTime(zoneId).toLocalDate().isBefore(fromDate)
+                        && e.getLocalStartDateTime(zoneId).toLocalDate().isBefore(toDate))
+                .sorted(Comparator.comparing((Event e) -> e.getLocalStartDateTime(zoneId)))
+                .collect(groupingBy(e -> e.getLocalStartDateTime(zoneId).toLocalDate(), TreeMap::new, toList()));
+    }
+
+    /**
+     * Produces the periods of a lazy Schedule in order, packing tasks into each as it is handed out.
+     */
+    interface PeriodSource extends Iterator<WorkPeriod> {
+
+        /**
+         * Tells whether all the tasks are packed into the periods handed out so far.
+         */
+        boolean isDone();
+    }
 }
@@ -0,0 +1,326 @@
+package com.wbl.dates;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes a Schedule by the day, as Schedule.toString always has, in one ordered pass over its periods and events.
+ *
+ * <p>The output is that of splitting copies of the periods and events at midnight and grouping their text by
+ * start time and then by date, without the copies or the maps: periods are already in order and split as they
+ * are reached, and events, whose midnight halves and local times can fall out of order, go through a priority
+ * queue that only holds those of the last two days. An event's text replaces that of periods starting at the
+ * same time, as it did in the grouped output. Each entry is built in one buffer, reused, and the time formatter
+ * is shared as long as the default locale is unchanged.</p>
+ *
+ * <p>Since every entry belongs to the day it starts on, a range of days can be written on its own from the last
+ * period starting before it and the events starting up to two days before it, which lets long schedules be
+ * written in chunks on a fork-join pool.</p>
+ */
+final class ScheduleWriter {
+
+    // events are at most 24 hours long and zone offsets move by less than a day, so an event piece this much
+    // earlier than the next event's start can no longer be preceded by another
+    private static final long SETTLED_SECONDS = Duration.ofDays(2).getSeconds();
+    // parallel writing splits the days into a few chunks per thread, so that uneven days even out
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK_DAYS = 7;
+    private static final Comparator<EventPiece> PIECE_ORDER = Comparator.comparingLong((EventPiece p) -> p.key)
+            .thenComparing(p -> p.half)
+            .thenComparingLong(p -> p.sequence);
+
+    private static volatile DateTimeFormatter timeFormatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT);
+
+    private final ZoneId zone;
+    private final DateTimeFormatter formatter = timeFormatter();
+    private final StringBuilder buffer = new StringBuilder();
+
+    ScheduleWriter(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    // the time format of periods and events in the default locale
+    static DateTimeFormatter timeFormatter() {
+        DateTimeFormatter formatter = timeFormatter;
+        if (!formatter.getLocale().equals(Locale.getDefault(Locale.Category.FORMAT))) {
+            formatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT);
+            timeFormatter = formatter;
+        }
+        return formatter;
+    }
+
+    void write(Iterator<WorkPeriod> periods, Iterator<Event> events, Appendable out) throws IOException {
+        write(periods, events, out, LocalDateTime.MIN, LocalDateTime.MAX);
+    }
+
+    /**
+     * Writes the days of a Schedule in parallel, in chunks of days whose text is appended in date order.
+     */
+    static void writeInChunks(ZoneId zone, List<WorkPeriod> periods, NavigableSet<Event> events, Appendable out,
+                              ForkJoinPool pool) throws IOException {
+        if (periods.isEmpty() && events.isEmpty()) {
+            return;
+        }
+        LocalDate first = firstDate(zone, periods, events);
+        LocalDate last = lastDate(zone, periods, events);
+        long chunkDays = Math.max(MIN_CHUNK_DAYS, (DAYS.between(first, last) + 1) / (CHUNKS_PER_THREAD
+                * pool.getParallelism()));
+        List<ForkJoinTask<String>> chunks = new ArrayList<>();
+        for (LocalDate from = first; !from.isAfter(last); from = from.plusDays(chunkDays)) {
+            LocalDateTime start = from.atStartOfDay();
+            LocalDateTime end = from.plusDays(chunkDays).atStartOfDay();
+            chunks.add(pool.submit(() -> writeChunk(zone, periods, events, start, end)));
+        }
+        for (ForkJoinTask<String> chunk : chunks) {
+            out.append(chunk.join());
+        }
+    }
+
+    // the text of the days from start (inclusive) to end (exclusive)
+    static String writeChunk(ZoneId zone, List<WorkPeriod> periods, NavigableSet<Event> events,
+                              LocalDateTime start, LocalDateTime end) {
+        // only the last period starting before the chunk can have a piece in it, the part after its midnight
+        int index = Collections.binarySearch(periods, new WorkPeriod(start, start));
+        int firstPeriod = Math.max(0, (index < 0 ? -index - 1 : index) - 1);
+        Event earliestEvent = Event.probe(start.atZone(zone).minusDays(2).toEpochSecond());
+        StringBuilder sb = new StringBuilder();
+        try {
+            new ScheduleWriter(zone).write(periods.subList(firstPeriod, periods.size()).iterator(),
+                    events.tailSet(earliestEvent, true).iterator(), sb, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    private static LocalDate firstDate(ZoneId zone, List<WorkPeriod> periods, NavigableSet<Event> events) {
+        LocalDate periodDate = periods.isEmpty() ? LocalDate.MAX : periods.get(0).getStartTime().toLocalDate();
+        LocalDate eventDate = events.isEmpty() ? LocalDate.MAX
+                : events.first().getLocalStartDateTime(zone).toLocalDate().minusDays(1);
+        return periodDate.isBefore(eventDate) ? periodDate : eventDate;
+    }
+
+    private static LocalDate lastDate(ZoneId zone, List<WorkPeriod> periods, NavigableSet<Event> events) {
+        LocalDate periodDate = periods.isEmpty() ? LocalDate.MIN
+                : periods.get(periods.size() - 1).getEndTime().toLocalDate();
+        LocalDate eventDate = events.isEmpty() ? LocalDate.MIN
+                : events.last().getLocalEndDateTime(zone).toLocalDate().plusDays(1);
+        return periodDate.isAfter(eventDate) ? periodDate : eventDate;
+    }
+
+    // writes the entries whose start time is from start (inclusive) to end (exclusive)
+    private void write(Iterator<WorkPeriod> periods, Iterator<Event> events, Appendable out, LocalDateTime start,
+                       LocalDateTime end) throws IOException {
+        PeriodPieces periodPieces = new PeriodPieces(periods);
+        EventPieces eventPieces = new EventPieces(events);
+        LocalDate date = null;
+        while (periodPieces.hasNext() || eventPieces.peek() != null) {
+            EventPiece event = eventPieces.peek();
+            int order = !periodPieces.hasNext() ? 1
+                    : event == null ? -1 : FreePeriodIterator.compare(periodPieces.key(), event.key);
+            LocalDateTime key = order < 0 ? periodPieces.key() : FreePeriodIterator.toLocalDateTime(event.key);
+            if (!key.isBefore(end)) {
+                break;
+            }
+            buffer.setLength(0);
+            if (order < 0) {
+                while (periodPieces.hasNext() && periodPieces.key().equals(key)) {
+                    periodPieces.appendNext(buffer);
+                }
+            } else {
+                while (order == 0 && periodPieces.hasNext() && periodPieces.key().equals(key)) {
+                    periodPieces.skipNext();
+                }
+                long second = event.key;
+                while (event != null && event.key == second) {
+                    event.appendTo(buffer);
+                    eventPieces.poll();
+                    event = eventPieces.peek();
+                }
+            }
+            if (key.isBefore(start)) {
+                continue;
+            } else if (!key.toLocalDate().equals(date)) {
+                date = key.toLocalDate();
+                out.append('\n').append(date.toString());
+            }
+            out.append(buffer);
+        }
+    }
+
+    private void appendPeriod(StringBuilder sb, LocalDateTime start, LocalDateTime end) {
+        sb.append("\n\tWork Period: ");
+        formatter.formatTo(start, sb);
+        sb.append(" to ");
+        formatter.formatTo(end, sb);
+    }
+
+    private static void appendPart(StringBuilder sb, TaskPart part, int sequenceNumber, int partCount,
+                                   Duration duration) {
+        sb.append("\n\t\t");
+        part.appendTo(sb, sequenceNumber, partCount, duration);
+    }
+
+    // the scheduled periods in order, each split at its first midnight as WorkPeriod.split does
+    private final class PeriodPieces {
+
+        private final Iterator<WorkPeriod> periods;
+        private WorkPeriod period;                   // period the next piece is cut from, null when none is left
+        private LocalDateTime midnight;              // its split time, null if it isn't split
+        private boolean tail;                        // whether the next piece is the part from midnight on
+
+        PeriodPieces(Iterator<WorkPeriod> periods) {
+            this.periods = periods;
+            nextPeriod();
+        }
+
+        boolean hasNext() {
+            return period != null;
+        }
+
+        LocalDateTime key() {
+            return tail ? midnight : period.getStartTime();
+        }
+
+        void skipNext() {
+            if (!tail && midnight != null) {
+                tail = true;
+            } else {
+                nextPeriod();
+            }
+        }
+
+        void appendNext(StringBuilder sb) {
+            if (midnight == null) {
+                appendPeriod(sb, period.getStartTime(), period.getEndTime());
+                for (TaskPart part : period.getTaskParts()) {
+                    appendPart(sb, part, part.getSequenceNumber(), part.getPartCount(), part.getDuration());
+                }
+            } else {
+                appendSplit(sb);
+            }
+            skipNext();
+        }
+
+        // one side of a split period: parts starting before midnight go to the head, the one spanning it is
+        // split, its halves numbered as if one more part of the task had been made
+        private void appendSplit(StringBuilder sb) {
+            appendPeriod(sb, tail ? midnight : period.getStartTime(), tail ? period.getEndTime() : midnight);
+            LocalDateTime taskStart = period.getStartTime();
+            for (TaskPart part : period.getTaskParts()) {
+                if (taskStart.isBefore(midnight)) {
+                    LocalDateTime taskEnd = taskStart.plus(part.getDuration());
+                    if (taskEnd.isAfter(midnight)) {
+                        Duration beforeMidnight = Duration.between(taskStart, midnight);
+                        int partCount = part.getPartCount() + 1;
+                        if (tail) {
+                            appendPart(sb, part, partCount, partCount, part.getDuration().minus(beforeMidnight));
+                        } else {
+                            appendPart(sb, part, part.getSequenceNumber(), partCount, beforeMidnight);
+                        }
+                    } else if (!tail) {
+                        appendPart(sb, part, part.getSequenceNumber(), part.getPartCount(), part.getDuration());
+                    }
+                    taskStart = taskEnd;
+                } else if (tail) {
+                    appendPart(sb, part, part.getSequenceNumber(), part.getPartCount(), part.getDuration());
+                }
+            }
+        }
+
+        private void nextPeriod() {
+            period = periods.hasNext() ? periods.next() : null;
+            tail = false;
+            if (period != null) {
+                LocalDateTime splitTime = period.getStartTime().plusDays(1).truncatedTo(DAYS);
+                midnight = splitTime.isAfter(period.getEndTime()) ? null : splitTime;
+            }
+        }
+    }
+
+    // the events and their halves after midnight, in order of local start time; at the same time, whole events
+    // and first halves come before second halves, each in the order of the events
+    private final class EventPieces {
+
+        private final Iterator<Event> events;
+        private final PriorityQueue<EventPiece> pending = new PriorityQueue<>(PIECE_ORDER);
+        private Event next;                          // next event not yet queued
+        private long sequence;
+
+        EventPieces(Iterator<Event> events) {
+            this.events = events;
+            next = events.hasNext() ? events.next() : null;
+        }
+
+        EventPiece peek() {
+            while (next != null && (pending.isEmpty()
+                    || pending.peek().key >= next.getLocalStartSecond(zone) - SETTLED_SECONDS)) {
+                queue(next, sequence++);
+                next = events.hasNext() ? events.next() : null;
+            }
+            return pending.peek();
+        }
+
+        void poll() {
+            pending.poll();
+        }
+
+        // as Event.split: the second half starts at midnight and is shown with the first half's duration
+        private void queue(Event event, long seq) {
+            long start = event.getLocalStartSecond(zone);
+            LocalDateTime midnight = FreePeriodIterator.toLocalDateTime(start).plusDays(1).truncatedTo(DAYS);
+            long splitSecond = midnight.atZone(zone).toEpochSecond();
+            if (splitSecond <= event.getStartSecond() || splitSecond >= event.getEndSecond()) {
+                pending.add(new EventPiece(event, start, false, seq, event.getEndSecond() - event.getStartSecond()));
+            } else {
+                long firstHalfSeconds = splitSecond - event.getStartSecond();
+                pending.add(new EventPiece(event, start, false, seq, firstHalfSeconds));
+                pending.add(new EventPiece(event, splitSecond + Event.offsetSeconds(zone, splitSecond), true, seq,
+                        firstHalfSeconds));
+            }
+        }
+    }
+
+    private final class EventPiece {
+
+        private final Event event;
+        private final long key;                      // local start second
+        private final boolean half;                  // the part after midnight of a split event
+        private final long sequence;
+        private final long seconds;                  // duration shown
+
+        EventPiece(Event event, long key, boolean half, long sequence, long seconds) {
+            this.event = event;
+            this.key = key;
+            this.half = half;
+            this.sequence = sequence;
+            this.seconds = seconds;
+        }
+
+        void appendTo(StringBuilder sb) {
+            sb.append("\n\t").append(event.getDescription()).append(": ");
+            formatter.formatTo(FreePeriodIterator.toLocalDateTime(key), sb);
+            sb.append(", duration = ");
+            Utils.appendDuration(sb, seconds);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.wbl.dates;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * Read-only SortedSet view of a list that is already sorted in natural order and holds no duplicates.
+ *
+ * <p>Handing one to TreeSet.addAll on an empty TreeSet, or to the TreeSet(SortedSet) constructor, builds the tree
+ * in linear time instead of inserting the elements one by one.</p>
+ */
+final class SortedListSet<E extends Comparable<? super E>> extends AbstractSet<E> implements SortedSet<E> {
+
+    private final List<E> elements;
+
+    SortedListSet(List<E> elements) {
+        this.elements = Collections.unmodifiableList(elements);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return elements.iterator();
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        int from = indexOf(fromElement);
+        return new SortedListSet<>(elements.subList(from, Math.max(from, indexOf(toElement))));
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return new SortedListSet<>(elements.subList(0, indexOf(toElement)));
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return new SortedListSet<>(elements.subList(indexOf(fromElement), elements.size()));
+    }
+
+    @Override
+    public E first() {
+        if (elements.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elements.get(0);
+    }
+
+    @Override
+    public E last() {
+        if (elements.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elements.get(elements.size() - 1);
+    }
+
+    // index of the first element not less than the given one
+    private int indexOf(E element) {
+        int index = Collections.binarySearch(elements, element);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -1,14 +1,11 @@
 package com.wbl.dates;
 
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
 
 public class Task {
 
     private final Duration duration;
     private final String description;
-    private final List<TaskPart> taskParts;
 
     /**
      * Parameterized Constructor.
@@ -19,7 +16,6 @@ public class Task {
     public Task(Duration duration, String description) {
         this.duration = duration;
         this.description = description;
-        taskParts = new ArrayList<>();
     }
 
     public Task(int hours, int minutes, String description) {
@@ -37,14 +33,4 @@ public class Task {
     String getDescription() {
         return description;
     }
-
-    TaskPart createTaskPart(Duration dur) {
-        TaskPart tp = new TaskPart(this, dur, taskParts.size() + 1);
-        taskParts.add(tp);
-        return tp;
-    }
-
-    int getTaskPartCount() {
-        return taskParts.size();
-    }
 }
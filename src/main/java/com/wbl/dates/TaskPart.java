@@ -1,11 +1,13 @@
 package com.wbl.dates;
 
 import java.time.Duration;
+import java.util.Map;
 
 public class TaskPart {
 
     private final Task owner;
     private final int partSequenceNumber;
+    private final TaskPartCounter counter;     // shared by the parts split from the same whole
     private Duration duration;
 
     /**
@@ -16,9 +18,14 @@ public class TaskPart {
      * @param partSequenceNumber part numbers
      */
     public TaskPart(Task owner, Duration duration, int partSequenceNumber) {
+        this(owner, duration, partSequenceNumber, new TaskPartCounter(owner, partSequenceNumber));
+    }
+
+    TaskPart(Task owner, Duration duration, int partSequenceNumber, TaskPartCounter counter) {
         this.owner = owner;
         this.duration = duration;
         this.partSequenceNumber = partSequenceNumber;
+        this.counter = counter;
     }
 
     public Task getOwner() {
@@ -54,14 +61,37 @@ public class TaskPart {
 
     @Override
     public String toString() {
-        int taskPartCount = owner.getTaskPartCount();
-        return owner.getDescription()
-                + (taskPartCount != 1 ? "(" + partSequenceNumber + "/" + taskPartCount + ")" : "")
-                + ", " + Utils.formatDuration(duration);
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb, partSequenceNumber, counter.getCount(), duration);
+        return sb.toString();
+    }
+
+    // appends the text of this part as if it were numbered sequenceNumber of partCount and lasted duration
+    void appendTo(StringBuilder sb, int sequenceNumber, int partCount, Duration partDuration) {
+        sb.append(owner.getDescription());
+        if (partCount != 1) {
+            sb.append('(').append(sequenceNumber).append('/').append(partCount).append(')');
+        }
+        Utils.appendDuration(sb.append(", "), partDuration.getSeconds());
+    }
+
+    int getSequenceNumber() {
+        return partSequenceNumber;
+    }
+
+    int getPartCount() {
+        return counter.getCount();
     }
 
+    /**
+     * Method to create a TaskPart covering the whole Task.
+     * Parts later split from it are numbered together with it, independently of any other parts of the Task.
+     *
+     * @param task Task
+     * @return TaskPart
+     */
     public static TaskPart wholeOf(Task task) {
-        return task.createTaskPart(task.getDuration());
+        return new TaskPartCounter(task).createTaskPart(task.getDuration());
     }
 
     /**
@@ -71,8 +101,20 @@ public class TaskPart {
      * @return TaskParts
      */
     public TaskPart split(Duration beforeSplitDuration) {
-        TaskPart tp2 = getOwner().createTaskPart(getDuration().minus(beforeSplitDuration));
+        Duration afterSplitDuration = getDuration().minus(beforeSplitDuration);
+        TaskPart tp2 = counter.createTaskPart(afterSplitDuration);
         duration = beforeSplitDuration;
         return tp2;
     }
+
+    // a copy that can be split without affecting this part or its numbering
+    TaskPart copy() {
+        return new TaskPart(owner, duration, partSequenceNumber, counter.copy());
+    }
+
+    // a copy numbered together with the other parts copied through the same map, as the originals were
+    TaskPart copy(Map<TaskPartCounter, TaskPartCounter> counterCopies) {
+        return new TaskPart(owner, duration, partSequenceNumber, counterCopies.computeIfAbsent(counter,
+                TaskPartCounter::copy));
+    }
 }
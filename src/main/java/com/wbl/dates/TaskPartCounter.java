@@ -0,0 +1,36 @@
+package com.wbl.dates;
+
+import java.time.Duration;
+
+/**
+ * Numbers the parts of one Task created during a single scheduling run, or split from one whole part.
+ * It is only referenced by those parts, so it is discarded together with them, for example with the
+ * Schedule they belong to, and nothing accumulates on the Task however often it is scheduled.
+ */
+final class TaskPartCounter {
+
+    private final Task owner;
+    private int count;
+
+    TaskPartCounter(Task owner) {
+        this(owner, 0);
+    }
+
+    TaskPartCounter(Task owner, int count) {
+        this.owner = owner;
+        this.count = count;
+    }
+
+    TaskPart createTaskPart(Duration duration) {
+        return new TaskPart(owner, duration, ++count, this);
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    // a detached copy, used when a part is split for display only
+    TaskPartCounter copy() {
+        return new TaskPartCounter(owner, count);
+    }
+}
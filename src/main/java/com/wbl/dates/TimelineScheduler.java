@@ -0,0 +1,199 @@
+package com.wbl.dates;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Scheduling engine that works on primitive arrays of epoch seconds.
+ *
+ * <p>Work periods, events and task durations are lowered onto the local time line (seconds since the epoch,
+ * read as if the local date-time were UTC, which is the same arithmetic the LocalDateTime based engine does).
+ * Seconds rather than minutes are used so that no work period, event or task has to be rounded to fit.
+ * Events are cut out of the work periods and the tasks are packed into the remaining free intervals in one
+ * sweep, using index arithmetic only. WorkPeriod and TaskPart objects are created at the end, for the Schedule.
+ * As in Calendar.createSchedule, work periods and events that are over before the work period running at the
+ * current time are skipped without being lowered.</p>
+ *
+ * <p>Times are handled to the whole second. Event times already are, and dropping the fraction of a second
+ * from the current time changes no result, so the Schedule matches createSchedule's unless a work period
+ * starts or ends at a fraction of a second; such a time is truncated here.</p>
+ */
+final class TimelineScheduler {
+
+    private static final long MINIMUM_SECONDS = WorkPeriod.MINIMUM_DURATION.getSeconds();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ZoneId zone;
+    private final long now;
+    private final List<Task> tasks;
+    private final long[] taskSeconds;
+
+    // scheduled periods; the task parts of period i are at indexes partFrom[i] until partFrom[i + 1]
+    private long[] scheduledStarts = new long[INITIAL_CAPACITY];
+    private long[] scheduledEnds = new long[INITIAL_CAPACITY];
+    private int[] partFrom = new int[INITIAL_CAPACITY + 1];
+    private int scheduledCount;
+    private int[] partTasks = new int[INITIAL_CAPACITY];
+    private long[] partSeconds = new long[INITIAL_CAPACITY];
+    private int partCount;
+
+    // packing cursor: the next task to schedule and how many of its seconds are already scheduled
+    private int taskIndex;
+    private long consumed;
+
+    private TimelineScheduler(Clock clock, List<Task> tasks) {
+        this.zone = clock.getZone();
+        this.now = toSeconds(LocalDateTime.now(clock));
+        this.tasks = tasks;
+        this.taskSeconds = new long[tasks.size()];
+        for (int i = 0; i < taskSeconds.length; i++) {
+            taskSeconds[i] = tasks.get(i).getDuration().getSeconds();
+        }
+    }
+
+    // from is the start of the work period running at the clock's time, or that time when none is
+    static Schedule createSchedule(NavigableSet<WorkPeriod> workPeriods, NavigableSet<Event> events,
+                                   List<Task> tasks, Clock clock, LocalDateTime from) {
+        TimelineScheduler scheduler = new TimelineScheduler(clock, tasks);
+
+        // the arrays grow as they are filled, since counting the calendar views would walk them an extra time
+        long[] periodStarts = new long[INITIAL_CAPACITY];
+        long[] periodEnds = new long[INITIAL_CAPACITY];
+        int periodCount = 0;
+        for (WorkPeriod p : workPeriods.tailSet(new WorkPeriod(from, from), true)) {
+            if (periodCount == periodStarts.length) {
+                periodStarts = Arrays.copyOf(periodStarts, periodCount * 2);
+                periodEnds = Arrays.copyOf(periodEnds, periodCount * 2);
+            }
+            periodStarts[periodCount] = toSeconds(p.getStartTime());
+            periodEnds[periodCount++] = toSeconds(p.getEndTime());
+        }
+
+        long[] eventStarts = new long[INITIAL_CAPACITY];
+        long[] eventEnds = new long[INITIAL_CAPACITY];
+        int eventCount = 0;
+        // events are at most 24 hours long, so none starting earlier than this can reach from
+        for (Event e : events.tailSet(Event.probe(from.atZone(scheduler.zone).minusDays(2).toEpochSecond()), true)) {
+            if (eventCount == eventStarts.length) {
+                eventStarts = Arrays.copyOf(eventStarts, eventCount * 2);
+                eventEnds = Arrays.copyOf(eventEnds, eventCount * 2);
+            }
+            eventStarts[eventCount] = e.getLocalStartSecond(scheduler.zone);
+            eventEnds[eventCount++] = e.getLocalEndSecond(scheduler.zone);
+        }
+
+        scheduler.sweep(Arrays.copyOf(periodStarts, periodCount), Arrays.copyOf(periodEnds, periodCount),
+                Arrays.copyOf(eventStarts, eventCount), Arrays.copyOf(eventEnds, eventCount));
+        return scheduler.toSchedule(events);
+    }
+
+    // the same walk as Calendar.overwritePeriodsByEvents, handing each free interval straight to accept
+    private void sweep(long[] periodStarts, long[] periodEnds, long[] eventStarts, long[] eventEnds) {
+        int pi = 0;
+        int ei = 0;
+        long start = periodStarts.length > 0 ? periodStarts[0] : 0;
+        while (pi < periodStarts.length && ei < eventStarts.length) {
+            if (periodEnds[pi] <= eventStarts[ei]) {
+                // non-overlapping, period first
+                accept(start, periodEnds[pi]);
+                if (++pi < periodStarts.length) {
+                    start = periodStarts[pi];
+                }
+            } else if (start >= eventEnds[ei]) {
+                // non-overlapping, event first
+                ei++;
+            } else if (start < eventStarts[ei]) {
+                // overlapping, period starts first
+                accept(start, eventStarts[ei]);
+                start = eventStarts[ei];
+            } else if (periodEnds[pi] > eventEnds[ei]) {
+                // overlapping, event starts first or at same time
+                start = eventEnds[ei++];
+            } else {
+                // event encloses period
+                if (++pi < periodStarts.length) {
+                    start = periodStarts[pi];
+                }
+            }
+        }
+        if (pi < periodStarts.length) {
+            accept(start, periodEnds[pi]);
+            for (pi++; pi < periodStarts.length; pi++) {
+                accept(periodStarts[pi], periodEnds[pi]);
+            }
+        }
+    }
+
+    private void accept(long start, long end) {
+        if (end - Math.max(start, now) <= MINIMUM_SECONDS) {
+            return;
+        }
+        if (scheduledCount == scheduledStarts.length) {
+            scheduledStarts = Arrays.copyOf(scheduledStarts, scheduledCount * 2);
+            scheduledEnds = Arrays.copyOf(scheduledEnds, scheduledCount * 2);
+            partFrom = Arrays.copyOf(partFrom, scheduledCount * 2 + 1);
+        }
+        scheduledStarts[scheduledCount] = start;
+        scheduledEnds[scheduledCount] = end;
+        partFrom[scheduledCount] = partCount;
+
+        // tasks are packed from the start of the period, as in WorkPeriod.split
+        long capacity = end - start;
+        while (capacity > 0 && taskIndex < taskSeconds.length) {
+            long remaining = taskSeconds[taskIndex] - consumed;
+            if (remaining <= capacity) {
+                addPart(remaining);
+                capacity -= remaining;
+                taskIndex++;
+                consumed = 0;
+            } else {
+                addPart(capacity);
+                consumed += capacity;
+                capacity = 0;
+            }
+        }
+        partFrom[++scheduledCount] = partCount;
+    }
+
+    private void addPart(long seconds) {
+        if (partCount == partTasks.length) {
+            partTasks = Arrays.copyOf(partTasks, partCount * 2);
+            partSeconds = Arrays.copyOf(partSeconds, partCount * 2);
+        }
+        partTasks[partCount] = taskIndex;
+        partSeconds[partCount++] = seconds;
+    }
+
+    private Schedule toSchedule(NavigableSet<Event> events) {
+        List<WorkPeriod> periods = new ArrayList<>(scheduledCount);
+        TaskPartCounter[] counters = new TaskPartCounter[taskSeconds.length];
+        for (int i = 0; i < scheduledCount; i++) {
+            List<TaskPart> parts = new ArrayList<>(partFrom[i + 1] - partFrom[i]);
+            for (int j = partFrom[i]; j < partFrom[i + 1]; j++) {
+                int task = partTasks[j];
+                if (counters[task] == null) {
+                    counters[task] = new TaskPartCounter(tasks.get(task));
+                }
+                parts.add(counters[task].createTaskPart(Duration.ofSeconds(partSeconds[j])));
+            }
+            periods.add(new WorkPeriod(toLocalDateTime(scheduledStarts[i]), toLocalDateTime(scheduledEnds[i]), parts));
+        }
+        return new Schedule(zone, periods, events, taskIndex == taskSeconds.length);
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toLocalDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -14,6 +14,7 @@ import java.time.temporal.TemporalAdjuster;
 import java.time.temporal.TemporalAdjusters;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -24,6 +25,8 @@ public class Utils {
     private static final LocalTime AM_START = LocalTime.of(9, 0);
     private static final LocalTime PM_START = LocalTime.of(13, 30);
     private static final Duration WORK_PERIOD_LENGTH = Duration.ofHours(3).plusMinutes(30);
+    private static final Recurrence WORKING_DAYS = Recurrence.weekly(EnumSet.range(DayOfWeek.MONDAY,
+            DayOfWeek.FRIDAY).toArray(new DayOfWeek[0]));
 
     public static List<WorkPeriod> generateWorkPeriods(LocalDate date, int dayCountInclusive) {
         List<LocalDate> workingDays = generateWorkingDays(date, dayCountInclusive);
@@ -42,6 +45,20 @@ public class Utils {
         return periods;
     }
 
+    /**
+     * Method to get working days, Monday to Friday, from a date on.
+     *
+     * <p>The days are counted off rather than found by stepping through the calendar, and the stream knows its
+     * exact size and splits evenly, so it runs in parallel as well as a range of numbers does.</p>
+     *
+     * @param startDate first date, counted if it is a working day
+     * @param dayCount  number of working days
+     * @return working days in order, found as the stream is consumed
+     */
+    public static Stream<LocalDate> workingDays(LocalDate startDate, long dayCount) {
+        return WORKING_DAYS.occurrences(startDate, dayCount);
+    }
+
     /**
      * Method to Add Events in Working days.
      *
@@ -59,16 +76,8 @@ public class Utils {
                 .collect(toList());
     }
 
-    private static boolean isWorkingDay(LocalDate dt) {
-        return dt.getDayOfWeek() != DayOfWeek.SATURDAY && dt.getDayOfWeek() != DayOfWeek.SUNDAY;
-    }
-
     private static List<LocalDate> generateWorkingDays(LocalDate startDate, int dayCount) {
-        return Stream.iterate(startDate, d -> d
-                .plusDays(1))
-                .filter(Utils::isWorkingDay)
-                .limit(dayCount)
-                .collect(toList());
+        return workingDays(startDate, dayCount).collect(toList());
     }
 
     /**
@@ -95,9 +104,15 @@ public class Utils {
     // end alternative implementation of generateWorkingDays
 
     static String formatDuration(Duration dur) {
-        long hours = dur.toHours();
-        String hoursString = hours == 0 ? "" : hours + (hours == 1 ? "hr " : "hrs ");
-        long minutes = dur.minusHours(hours).toMinutes();
-        return hoursString + minutes + "mins";
+        return appendDuration(new StringBuilder(), dur.getSeconds()).toString();
+    }
+
+    // appends a duration of the given seconds as formatDuration shows it, building no intermediate strings
+    static StringBuilder appendDuration(StringBuilder sb, long seconds) {
+        long hours = seconds / 3600;
+        if (hours != 0) {
+            sb.append(hours).append(hours == 1 ? "hr " : "hrs ");
+        }
+        return sb.append((seconds - hours * 3600) / 60).append("mins");
     }
 }
@@ -0,0 +1,155 @@
+package com.wbl.dates;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * The shifts worked on each day of the week, for a Calendar to make its work periods from as scheduling reaches
+ * them instead of holding them all.
+ *
+ * <p>Shifts may run past midnight, but no shift may overlap or touch the next one, the week round, since work
+ * periods cannot. Instances are immutable: withShift gives a new pattern.</p>
+ */
+public final class WorkPattern {
+
+    private static final long WEEK_SECONDS = Duration.ofDays(7).getSeconds();
+
+    private final List<List<Shift>> shiftsByDay;          // indexed by DayOfWeek.ordinal(), ordered by start
+
+    /**
+     * Constructor for a pattern without shifts.
+     */
+    public WorkPattern() {
+        List<List<Shift>> days = new ArrayList<>();
+        for (int i = 0; i < DayOfWeek.values().length; i++) {
+            days.add(Collections.emptyList());
+        }
+        this.shiftsByDay = Collections.unmodifiableList(days);
+    }
+
+    private WorkPattern(List<List<Shift>> shiftsByDay) {
+        this.shiftsByDay = shiftsByDay;
+    }
+
+    /**
+     * Method to get the pattern of Utils.generateWorkPeriods: from Monday to Friday, 9:00 to 12:30 and 13:30 to
+     * 17:00.
+     *
+     * @return WorkPattern
+     */
+    public static WorkPattern standard() {
+        DayOfWeek[] weekdays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY).toArray(new DayOfWeek[0]);
+        Duration length = Duration.ofHours(3).plusMinutes(30);
+        return new WorkPattern()
+                .withShift(LocalTime.of(9, 0), length, weekdays)
+                .withShift(LocalTime.of(13, 30), length, weekdays);
+    }
+
+    /**
+     * Method to add a shift on some days of the week.
+     *
+     * @param start  start of the shift
+     * @param length length of the shift
+     * @param days   days the shift is worked on
+     * @return a WorkPattern with the shift added
+     * @throws IllegalArgumentException if the shift is not between 5 minutes and a day long, or overlaps or touches
+     *                                  another
+     */
+    public WorkPattern withShift(LocalTime start, Duration length, DayOfWeek... days) {
+        if (!WorkPeriod.MINIMUM_DURATION.minus(length).isNegative() || length.compareTo(Duration.ofDays(1)) > 0) {
+            throw new IllegalArgumentException("Shifts must be more than " + WorkPeriod.MINIMUM_DURATION
+                    + " and at most a day long: " + length);
+        }
+        List<List<Shift>> updated = new ArrayList<>(shiftsByDay);
+        for (DayOfWeek day : days) {
+            List<Shift> shifts = new ArrayList<>(updated.get(day.ordinal()));
+            shifts.add(new Shift(day, start, length));
+            shifts.sort(Comparator.comparing(shift -> shift.start));
+            updated.set(day.ordinal(), Collections.unmodifiableList(shifts));
+        }
+        checkShifts(updated);
+        return new WorkPattern(Collections.unmodifiableList(updated));
+    }
+
+    // every shift has to end before the next one starts, the last of the week before the first of the next week
+    private static void checkShifts(List<List<Shift>> shiftsByDay) {
+        List<Shift> week = new ArrayList<>();
+        shiftsByDay.forEach(week::addAll);
+        for (int i = 0; i < week.size(); i++) {
+            Shift shift = week.get(i);
+            Shift next = week.get((i + 1) % week.size());
+            long nextStart = next.secondOfWeek() + (i + 1 == week.size() ? WEEK_SECONDS : 0);
+            if (shift.secondOfWeek() + shift.length.getSeconds() >= nextStart) {
+                throw new IllegalArgumentException("Shifts cannot overlap: " + shift + "," + next);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return shiftsByDay.stream().allMatch(List::isEmpty);
+    }
+
+    // first period of the pattern starting after, or with inclusive at, the time and on a date in the range
+    WorkPeriod ceiling(LocalDateTime time, boolean inclusive, LocalDate firstDate, LocalDate lastDate) {
+        LocalDate date = time.toLocalDate().isBefore(firstDate) ? firstDate : time.toLocalDate();
+        // every week has a shift, so a week and a day covers the next one
+        LocalDate until = date.plusDays(7).isBefore(lastDate) ? date.plusDays(7) : lastDate;
+        for (; !date.isAfter(until); date = date.plusDays(1)) {
+            for (Shift shift : shiftsByDay.get(date.getDayOfWeek().ordinal())) {
+                LocalDateTime start = date.atTime(shift.start);
+                if (start.isAfter(time) || inclusive && start.equals(time)) {
+                    return new WorkPeriod(start, start.plus(shift.length));
+                }
+            }
+        }
+        return null;
+    }
+
+    // last period of the pattern starting before, or with inclusive at, the time and on a date in the range
+    WorkPeriod floor(LocalDateTime time, boolean inclusive, LocalDate firstDate, LocalDate lastDate) {
+        LocalDate date = time.toLocalDate().isAfter(lastDate) ? lastDate : time.toLocalDate();
+        LocalDate until = date.minusDays(7).isAfter(firstDate) ? date.minusDays(7) : firstDate;
+        for (; !date.isBefore(until); date = date.minusDays(1)) {
+            List<Shift> shifts = shiftsByDay.get(date.getDayOfWeek().ordinal());
+            for (int i = shifts.size() - 1; i >= 0; i--) {
+                LocalDateTime start = date.atTime(shifts.get(i).start);
+                if (start.isBefore(time) || inclusive && start.equals(time)) {
+                    return new WorkPeriod(start, start.plus(shifts.get(i).length));
+                }
+            }
+        }
+        return null;
+    }
+
+    // a shift on one day of the week
+    private static final class Shift {
+
+        private final DayOfWeek day;
+        private final LocalTime start;
+        private final Duration length;
+
+        Shift(DayOfWeek day, LocalTime start, Duration length) {
+            this.day = day;
+            this.start = start;
+            this.length = length;
+        }
+
+        long secondOfWeek() {
+            return day.ordinal() * Duration.ofDays(1).getSeconds() + start.toSecondOfDay();
+        }
+
+        @Override
+        public String toString() {
+            return day + " " + start + " for " + length;
+        }
+    }
+}
@@ -7,13 +7,9 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import org.threeten.extra.Interval;
 
@@ -85,7 +81,7 @@ public class WorkPeriod implements Comparable<WorkPeriod> {
 
     @Override
     public String toString() {
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT);
+        DateTimeFormatter timeFormatter = ScheduleWriter.timeFormatter();
         String workPeriodHeader = "\n\tWork Period: "
                 + timeFormatter.format(startTime)
                 + " to "
@@ -116,24 +112,25 @@ public class WorkPeriod implements Comparable<WorkPeriod> {
             WorkPeriod newPeriod = new WorkPeriod(startTime, splitTime);
             startTime = splitTime;
             if (!taskParts.isEmpty()) {
-                NavigableMap<LocalDateTime, TaskPart> timeToTaskPartMap = new TreeMap<>();
+                // one pass: parts starting before splitTime stay with the new period, the one spanning it is split
+                List<TaskPart> headParts = new ArrayList<>();
+                List<TaskPart> tailParts = new ArrayList<>();
                 LocalDateTime taskStartTime = newPeriod.getStartTime();
                 for (TaskPart taskPart : taskParts) {
-                    timeToTaskPartMap.put(taskStartTime, taskPart);
-                    taskStartTime = taskStartTime.plus(taskPart.getDuration());
-                }
-                newPeriod.setTaskParts(new ArrayList<>(timeToTaskPartMap.headMap(splitTime).values()));
-                setTaskParts(new ArrayList<>(timeToTaskPartMap.tailMap(splitTime).values()));
-
-                Map.Entry<LocalDateTime, TaskPart> taskPartEntry = timeToTaskPartMap.lowerEntry(splitTime);
-                TaskPart partToSplit = taskPartEntry.getValue();
-                LocalDateTime partStartTime = taskPartEntry.getKey();
-                Duration partDuration = partToSplit.getDuration();
-                if (splitTime.isAfter(partStartTime) && partStartTime.plus(partDuration).isAfter(splitTime)) {
-                    // TODO doesn't allow for DST changes during WorkPeriod being split
-                    TaskPart newTaskPart = partToSplit.split(Duration.between(partStartTime, splitTime));
-                    getTaskParts().add(0, newTaskPart);
+                    if (taskStartTime.isBefore(splitTime)) {
+                        headParts.add(taskPart);
+                        LocalDateTime taskEndTime = taskStartTime.plus(taskPart.getDuration());
+                        if (taskEndTime.isAfter(splitTime)) {
+                            // TODO doesn't allow for DST changes during WorkPeriod being split
+                            tailParts.add(taskPart.split(Duration.between(taskStartTime, splitTime)));
+                        }
+                        taskStartTime = taskEndTime;
+                    } else {
+                        tailParts.add(taskPart);
+                    }
                 }
+                newPeriod.setTaskParts(headParts);
+                setTaskParts(tailParts);
             }
             return Optional.of(newPeriod);
         } else {
@@ -0,0 +1,73 @@
+package com.wbl.dates;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import java.util.NavigableSet;
+
+/**
+ * Read-only view of a calendar's work periods together with those of its work pattern, ordered by start time,
+ * that the schedulers read in place of the work period set.
+ *
+ * <p>The pattern's periods are made as the view is navigated, from the shifts of the few days around the time
+ * looked up, so a pattern set for years ahead holds nothing until scheduling reaches it. The calendar keeps the
+ * periods of the set from overlapping those of the pattern.</p>
+ */
+final class WorkPeriodSetView extends LazyNavigableSet<WorkPeriod> {
+
+    private final NavigableSet<WorkPeriod> workPeriods;
+    private final WorkPattern pattern;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+
+    WorkPeriodSetView(NavigableSet<WorkPeriod> workPeriods, WorkPattern pattern, LocalDate firstDate,
+                      LocalDate lastDate) {
+        this(workPeriods, pattern, firstDate, lastDate, null, false, null, false);
+    }
+
+    private WorkPeriodSetView(NavigableSet<WorkPeriod> workPeriods, WorkPattern pattern, LocalDate firstDate,
+                              LocalDate lastDate, WorkPeriod low, boolean lowInclusive, WorkPeriod high,
+                              boolean highInclusive) {
+        super(low, lowInclusive, high, highInclusive);
+        this.workPeriods = workPeriods;
+        this.pattern = pattern;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+    }
+
+    @Override
+    WorkPeriod ceilingOf(WorkPeriod period, boolean inclusive) {
+        WorkPeriod stored = inclusive ? workPeriods.ceiling(period) : workPeriods.higher(period);
+        WorkPeriod generated = pattern.ceiling(period.getStartTime(), inclusive, firstDate, lastDate);
+        return stored == null || generated != null && generated.compareTo(stored) < 0 ? generated : stored;
+    }
+
+    @Override
+    WorkPeriod floorOf(WorkPeriod period, boolean inclusive) {
+        WorkPeriod stored = inclusive ? workPeriods.floor(period) : workPeriods.lower(period);
+        WorkPeriod generated = pattern.floor(period.getStartTime(), inclusive, firstDate, lastDate);
+        return stored == null || generated != null && generated.compareTo(stored) > 0 ? generated : stored;
+    }
+
+    @Override
+    WorkPeriod firstOf() {
+        LocalDateTime start = firstDate.atStartOfDay();
+        WorkPeriod generated = pattern.ceiling(start, true, firstDate, lastDate);
+        WorkPeriod stored = workPeriods.isEmpty() ? null : workPeriods.first();
+        return stored == null || generated != null && generated.compareTo(stored) < 0 ? generated : stored;
+    }
+
+    @Override
+    WorkPeriod lastOf() {
+        LocalDateTime end = lastDate.plusDays(1).atStartOfDay();
+        WorkPeriod generated = pattern.floor(end, false, firstDate, lastDate);
+        WorkPeriod stored = workPeriods.isEmpty() ? null : workPeriods.last();
+        return stored == null || generated != null && generated.compareTo(stored) > 0 ? generated : stored;
+    }
+
+    @Override
+    NavigableSet<WorkPeriod> bounded(WorkPeriod low, boolean lowInclusive, WorkPeriod high, boolean highInclusive) {
+        return new WorkPeriodSetView(workPeriods, pattern, firstDate, lastDate, low, lowInclusive, high,
+                highInclusive);
+    }
+}
@@ -0,0 +1,75 @@
+package com.wbl.tasks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.wbl.dates.Event;
+
+public class EventProjectionBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * Times projecting many events into a schedule zone three ways a round: through the cache when the fresh
+     * events are projected for the first time, through the cache once they are projected, and by converting each
+     * ZonedDateTime to a LocalDateTime directly, as was done before the cache.
+     *
+     * @param args optional number of events, default one million
+     */
+    public static void main(String[] args) {
+        int eventCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        ZoneId eventZone = ZoneId.of("America/New_York");
+        ZoneId scheduleZone = ZoneId.of("Europe/London");
+        LocalDate startDate = LocalDate.of(2018, 5, 21);
+
+        System.out.printf("%d events%n", eventCount);
+        for (int round = 1; round <= ROUNDS; round++) {
+            List<Event> events = new ArrayList<>(eventCount);
+            ZonedDateTime eventStart = startDate.atTime(9, 0).atZone(eventZone);
+            for (int i = 0; i < eventCount; i++) {
+                events.add(Event.of(eventStart, eventStart.plusMinutes(10), "event " + i));
+                eventStart = eventStart.plusMinutes(30);
+            }
+
+            long begin = System.nanoTime();
+            long checksum = projectCached(events, scheduleZone);
+            long firstProjection = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            checksum += projectCached(events, scheduleZone);
+            long cachedProjection = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            checksum += projectDirectly(events, scheduleZone);
+            long directConversion = System.nanoTime() - begin;
+
+            System.out.printf("round %d: first projection %6d ms, cached %6d ms, direct conversion %6d ms (%d)%n",
+                    round, firstProjection / 1_000_000, cachedProjection / 1_000_000, directConversion / 1_000_000,
+                    checksum);
+        }
+    }
+
+    // the checksums keep the projections from being optimised away
+    private static long projectCached(List<Event> events, ZoneId zone) {
+        long checksum = 0;
+        for (Event event : events) {
+            checksum += event.getLocalStartDateTime(zone).getMinute() + event.getLocalEndDateTime(zone).getMinute();
+        }
+        return checksum;
+    }
+
+    private static long projectDirectly(List<Event> events, ZoneId zone) {
+        long checksum = 0;
+        for (Event event : events) {
+            LocalDateTime start = event.getStartTime().withZoneSameInstant(zone).toLocalDateTime();
+            LocalDateTime end = event.getEndTime().withZoneSameInstant(zone).toLocalDateTime();
+            checksum += start.getMinute() + end.getMinute();
+        }
+        return checksum;
+    }
+}
@@ -4,19 +4,24 @@ import static java.util.stream.Collectors.toList;
 
 import java.time.DayOfWeek;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.temporal.TemporalAdjuster;
 import java.time.temporal.TemporalAdjusters;
 
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.stream.LongStream;
 
 import com.wbl.dates.Event;
+import com.wbl.dates.Recurrence;
+import com.wbl.dates.RecurringEvent;
 
 
 public class TemporalAdj {
+
+    private static final Recurrence FIRST_MONDAYS = Recurrence.firstInMonth(DayOfWeek.MONDAY);
+
     /**
      * Example to Schedule standup Meeting on every Monday.
      *
@@ -27,15 +32,46 @@ public class TemporalAdj {
      * @return List of events
      */
     public static List<Event> generateReviews(LocalDateTime start, int eventCount, Duration duration, ZoneId zone) {
+        return LongStream.range(0, eventCount)
+                .mapToObj(i -> review(start, i, duration, zone))
+                .collect(toList());
+    }
+
+    /**
+     * Method to get one of the reviews of generateReviews by its position, found without those before it.
+     *
+     * @param start    LocalDateTime
+     * @param index    0 for the first review
+     * @param duration time
+     * @param zone     Zone
+     * @return Event
+     */
+    public static Event review(LocalDateTime start, long index, Duration duration, ZoneId zone) {
+        return new Event(ZonedDateTime.of(reviewDate(start.toLocalDate(), index), start.toLocalTime(), zone),
+                duration, "standup");
+    }
 
-        TemporalAdjuster followingReviewDate = startDate -> startDate
-                .with(TemporalAdjusters.firstDayOfNextMonth())
-                .with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+    // the first review is on the start date, the others on the first Monday of each following month
+    private static LocalDate reviewDate(LocalDate startDate, long index) {
+        return index == 0
+                ? startDate
+                : FIRST_MONDAYS.occurrence(startDate.with(TemporalAdjusters.firstDayOfNextMonth()), index - 1);
+    }
 
-        return Stream.iterate(start.toLocalDate(), d -> d.with(followingReviewDate))
-                .limit(eventCount)
-                .map(d -> ZonedDateTime.of(d, start.toLocalTime(), zone))
-                .map(zonedDt -> new Event(zonedDt, duration, "standup"))
-                .collect(toList());
+    /**
+     * The reviews of generateReviews as one RecurringEvent, for a Calendar to expand as it needs them.
+     *
+     * @param start    LocalDateTime
+     * @param lastDate last date a review may fall on
+     * @param duration time
+     * @param zone     Zone
+     * @return RecurringEvent
+     */
+    public static RecurringEvent reviews(LocalDateTime start, LocalDate lastDate, Duration duration, ZoneId zone) {
+        RecurringEvent reviews = new RecurringEvent(ZonedDateTime.of(start, zone), duration, "standup",
+                FIRST_MONDAYS, lastDate);
+        // a first Monday later in the month of the start is not a review, the next one being in the month after
+        LocalDate sameMonth = FIRST_MONDAYS.occurrence(start.toLocalDate().withDayOfMonth(1), 0);
+        return sameMonth.isAfter(start.toLocalDate()) ? reviews.except(sameMonth) : reviews;
     }
 }
@@ -0,0 +1,83 @@
+package com.wbl.datestest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.wbl.dates.BusinessCalendar;
+
+public class BusinessCalendarTest {
+
+    private final LocalDate christmas = LocalDate.of(2018, 12, 25);
+    private final BusinessCalendar calendar = new BusinessCalendar(Arrays.asList(christmas, christmas.plusDays(1),
+            LocalDate.of(2019, 1, 1), LocalDate.of(2018, 12, 29)));
+
+    @Test
+    public void testSkipsWeekendsAndHolidays() {
+        assertFalse(calendar.isWorkingDay(christmas));
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2018, 12, 30)));
+        assertTrue(calendar.isWorkingDay(LocalDate.of(2018, 12, 31)));
+
+        LocalDate friday = LocalDate.of(2018, 12, 21);
+        assertEquals(LocalDate.of(2018, 12, 24), calendar.addWorkingDays(friday, 1));
+        assertEquals(LocalDate.of(2018, 12, 27), calendar.addWorkingDays(friday, 2));
+        assertEquals(LocalDate.of(2019, 1, 2), calendar.addWorkingDays(friday, 5));
+        assertEquals(friday, calendar.addWorkingDays(LocalDate.of(2018, 12, 24), -1));
+        assertEquals(LocalDate.of(2018, 12, 24), calendar.addWorkingDays(LocalDate.of(2018, 12, 27), -1));
+        assertEquals(christmas, calendar.addWorkingDays(christmas, 0));
+        assertEquals(5, calendar.workingDaysBetween(friday, LocalDate.of(2019, 1, 2)));
+        assertEquals(-5, calendar.workingDaysBetween(LocalDate.of(2019, 1, 2), friday));
+    }
+
+    @Test
+    public void testMatchesCountingDayByDay() {
+        Random random = new Random(23);
+        LocalDate origin = LocalDate.of(1999, 1, 1);
+        List<LocalDate> holidays = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            holidays.add(origin.plusDays(random.nextInt(3000)));
+        }
+        for (BusinessCalendar business : Arrays.asList(new BusinessCalendar(holidays),
+                new BusinessCalendar(EnumSet.of(DayOfWeek.FRIDAY), holidays),
+                new BusinessCalendar(Collections.emptySet(), holidays))) {
+            for (int i = 0; i < 500; i++) {
+                LocalDate date = origin.plusDays(random.nextInt(3000));
+                int days = random.nextInt(200) - 100;
+
+                LocalDate expected = date;
+                for (int step = 0; step < Math.abs(days); step++) {
+                    do {
+                        expected = expected.plusDays(Integer.signum(days));
+                    } while (!isWorkingDay(business, holidays, expected));
+                }
+                assertEquals(expected, business.addWorkingDays(date, days));
+                assertEquals(isWorkingDay(business, holidays, date), business.isWorkingDay(date));
+
+                long count = 0;
+                for (LocalDate day = date; day.isBefore(expected); day = day.plusDays(1)) {
+                    count += isWorkingDay(business, holidays, day) ? 1 : 0;
+                }
+                for (LocalDate day = expected; day.isBefore(date); day = day.plusDays(1)) {
+                    count -= isWorkingDay(business, holidays, day) ? 1 : 0;
+                }
+                assertEquals(count, business.workingDaysBetween(date, expected));
+            }
+        }
+    }
+
+    private static boolean isWorkingDay(BusinessCalendar business, List<LocalDate> holidays, LocalDate date) {
+        return !business.getWeekend().contains(date.getDayOfWeek()) && !holidays.contains(date);
+    }
+}
@@ -0,0 +1,167 @@
+package com.wbl.datestest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.wbl.dates.BusyBitmap;
+import com.wbl.dates.Calendar;
+import com.wbl.dates.Event;
+import com.wbl.dates.RecurringEvent;
+import com.wbl.dates.Utils;
+import com.wbl.dates.WorkPeriod;
+
+public class BusyBitmapTest {
+
+    private final ZoneId zone = ZoneOffset.UTC;
+    private LocalDate date;
+    private Calendar calendar;
+
+    /**
+     * Setup Method.
+     */
+    @Before
+    public void setup() {
+        date = LocalDate.of(2018, 5, 21);
+        calendar = new Calendar().addWorkPeriods(Utils.generateWorkPeriods(date, 5));
+        calendar.addEvent(date.atTime(10, 0).atZone(zone), Duration.ofMinutes(30), "standup");
+    }
+
+    @Test
+    public void testFreeInsideWorkPeriodsOutsideEvents() {
+        BusyBitmap bitmap = BusyBitmap.of(calendar, zone);
+
+        assertFalse(bitmap.isFree(date.atTime(8, 59)));
+        assertTrue(bitmap.isFree(date.atTime(9, 0)));
+        assertTrue(bitmap.isFree(date.atTime(9, 59)));
+        assertFalse(bitmap.isFree(date.atTime(10, 0)));
+        assertFalse(bitmap.isFree(date.atTime(10, 29)));
+        assertTrue(bitmap.isFree(date.atTime(10, 30)));
+        assertTrue(bitmap.isFree(date.atTime(12, 29)));
+        assertFalse(bitmap.isFree(date.atTime(12, 30)));
+        assertFalse(bitmap.isFree(date.minusDays(1), LocalTime.NOON));
+    }
+
+    @Test
+    public void testFollowsCalendar() {
+        BusyBitmap bitmap = BusyBitmap.of(calendar, zone);
+        LocalDate saturday = date.plusDays(5);
+        calendar.addWorkPeriod(new WorkPeriod(saturday.atTime(10, 0), saturday.atTime(11, 0)));
+        calendar.addEvent(date.atTime(14, 0).atZone(zone), Duration.ofMinutes(1), "quick");
+        calendar.addEvents(Arrays.asList(Event.of(date.atTime(23, 0).atZone(zone),
+                date.atTime(23, 0).atZone(zone).plusHours(11), "overnight")));
+
+        assertTrue(bitmap.isFree(saturday.atTime(10, 59)));
+        assertFalse(bitmap.isFree(date.atTime(14, 0)));
+        assertTrue(bitmap.isFree(date.atTime(14, 1)));
+        assertFalse(bitmap.isFree(date.plusDays(1).atTime(9, 59)));
+        assertTrue(bitmap.isFree(date.plusDays(1).atTime(10, 0)));
+    }
+
+    @Test
+    public void testRecurringEventsMatchTheirOccurrences() {
+        Calendar expanded = new Calendar().addWorkPeriods(Utils.generateWorkPeriods(date, 5));
+        for (LocalDate day = date.minusDays(1); day.isBefore(date.plusDays(8)); day = day.plusDays(1)) {
+            expanded.addEvent(day.atTime(8, 30).atZone(zone), Duration.ofMinutes(45), "early");
+            expanded.addEvent(day.atTime(16, 50).atZone(zone), Duration.ofMinutes(20), "late");
+        }
+        BusyBitmap expected = BusyBitmap.of(expanded, zone);
+
+        // one rule known when the bitmap is built, one added after; both run on for decades
+        Calendar recurring = new Calendar().addWorkPeriods(Utils.generateWorkPeriods(date, 5));
+        recurring.addRecurringEvent(RecurringEvent.daily(date.minusDays(1).atTime(8, 30).atZone(zone),
+                Duration.ofMinutes(45), "early", date.plusYears(50)));
+        BusyBitmap bitmap = BusyBitmap.of(recurring, zone);
+        recurring.addRecurringEvent(RecurringEvent.daily(date.minusDays(1).atTime(16, 50).atZone(zone),
+                Duration.ofMinutes(20), "late", date.plusYears(50)));
+
+        for (LocalDate day = date.minusDays(1); day.isBefore(date.plusDays(8)); day = day.plusDays(1)) {
+            assertTrue(day.toString(), Arrays.equals(expected.freeMinutes(day), bitmap.freeMinutes(day)));
+        }
+    }
+
+    @Test
+    public void testDetachStopsFollowing() {
+        BusyBitmap bitmap = BusyBitmap.of(calendar, zone);
+        bitmap.detach();
+        calendar.addEvent(date.atTime(14, 0).atZone(zone), Duration.ofMinutes(30), "after detach");
+        bitmap.detach();
+
+        assertFalse(bitmap.isFree(date.atTime(10, 0)));
+        assertTrue(bitmap.isFree(date.atTime(14, 0)));
+    }
+
+    @Test
+    public void testPartialMinutes() {
+        calendar = new Calendar().addWorkPeriod(new WorkPeriod(date.atTime(9, 0, 30), date.atTime(10, 0, 30)));
+        calendar.addEvent(date.atTime(9, 30, 30).atZone(zone), Duration.ofSeconds(10), "");
+        BusyBitmap bitmap = BusyBitmap.of(calendar, zone);
+
+        assertFalse(bitmap.isFree(date.atTime(9, 0)));
+        assertTrue(bitmap.isFree(date.atTime(9, 1)));
+        assertFalse(bitmap.isFree(date.atTime(9, 30)));
+        assertTrue(bitmap.isFree(date.atTime(9, 59)));
+        assertFalse(bitmap.isFree(date.atTime(10, 0)));
+    }
+
+    @Test
+    public void testFirstFreeRun() {
+        BusyBitmap bitmap = BusyBitmap.of(calendar, zone);
+
+        assertEquals(Optional.of(LocalTime.of(9, 0)), bitmap.firstFreeRun(date, 60));
+        assertEquals(Optional.of(LocalTime.of(10, 30)), bitmap.firstFreeRun(date, 61));
+        assertEquals(Optional.of(LocalTime.of(13, 30)), bitmap.firstFreeRun(date, 150));
+        assertEquals(Optional.empty(), bitmap.firstFreeRun(date, 211));
+    }
+
+    @Test
+    public void testIntersectAndUnionMatchMinutes() {
+        Random random = new Random(7);
+        List<BusyBitmap> bitmaps = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Calendar cal = new Calendar().addWorkPeriods(Utils.generateWorkPeriods(date, 1));
+            for (int e = 0; e < 6; e++) {
+                LocalDateTime start = date.atTime(8, 0).plusMinutes(random.nextInt(600));
+                cal.addEvent(start.atZone(zone), Duration.ofMinutes(1 + random.nextInt(90)), "");
+            }
+            bitmaps.add(BusyBitmap.of(cal, zone));
+        }
+
+        long[] all = BusyBitmap.intersect(bitmaps, date);
+        long[] any = BusyBitmap.union(bitmaps, date);
+        int firstCommonHalfHour = -1;
+        int run = 0;
+        for (int minute = 0; minute < BusyBitmap.MINUTES_PER_DAY; minute++) {
+            LocalTime time = LocalTime.MIN.plusMinutes(minute);
+            boolean allFree = true;
+            boolean anyFree = false;
+            for (BusyBitmap bitmap : bitmaps) {
+                allFree &= bitmap.isFree(date, time);
+                anyFree |= bitmap.isFree(date, time);
+            }
+            assertEquals(allFree, (all[minute / 64] & 1L << minute) != 0);
+            assertEquals(anyFree, (any[minute / 64] & 1L << minute) != 0);
+            run = allFree ? run + 1 : 0;
+            if (run == 30 && firstCommonHalfHour < 0) {
+                firstCommonHalfHour = minute - 29;
+            }
+        }
+        assertEquals(firstCommonHalfHour, BusyBitmap.firstFreeRun(all, 30));
+    }
+}
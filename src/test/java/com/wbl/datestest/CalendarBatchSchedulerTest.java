@@ -0,0 +1,88 @@
+package com.wbl.datestest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.wbl.dates.Calendar;
+import com.wbl.dates.CalendarBatchScheduler;
+import com.wbl.dates.Schedule;
+import com.wbl.dates.Utils;
+
+public class CalendarBatchSchedulerTest {
+
+    private Clock clock;
+    private LocalDate startDate;
+
+    /**
+     * Setup Method.
+     */
+    @Before
+    public void setup() {
+        clock = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+        startDate = LocalDate.now(clock);
+    }
+
+    @Test
+    public void testResultsInInputOrder() {
+        List<Calendar> calendars = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            calendars.add(new Calendar()
+                    .addWorkPeriods(Utils.generateWorkPeriods(startDate, 1 + i % 5))
+                    .addTask(i % 20, 0, "task " + i));
+        }
+
+        List<CalendarBatchScheduler.Result> results = new CalendarBatchScheduler().schedule(calendars, clock);
+
+        assertEquals(calendars.size(), results.size());
+        for (int i = 0; i < calendars.size(); i++) {
+            CalendarBatchScheduler.Result result = results.get(i);
+            assertSame(calendars.get(i), result.getCalendar());
+            assertFalse(result.isFailed());
+            Schedule schedule = result.getSchedule().get();
+            assertEquals(calendars.get(i).createSchedule(clock).isSuccessful(), schedule.isSuccessful());
+        }
+    }
+
+    @Test
+    public void testFailureDoesNotAbortBatch() {
+        Calendar failing = new Calendar() {
+            @Override
+            public Schedule createSchedule(Clock clock) {
+                throw new IllegalStateException("broken calendar");
+            }
+        };
+        Calendar first = new Calendar().addWorkPeriods(Utils.generateWorkPeriods(startDate, 2));
+        Calendar last = new Calendar().addTask(1, 0, "no work periods");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<CalendarBatchScheduler.Result> results = new CalendarBatchScheduler(executor)
+                    .schedule(Arrays.asList(first, failing, last), clock);
+
+            assertTrue(results.get(0).getSchedule().get().isSuccessful());
+            assertTrue(results.get(1).isFailed());
+            assertFalse(results.get(1).getSchedule().isPresent());
+            assertEquals("broken calendar", results.get(1).getFailure().get().getMessage());
+            assertFalse(results.get(2).isFailed());
+            assertFalse(results.get(2).getSchedule().get().isSuccessful());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package com.wbl.datestest;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.time.Clock;
+import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.hamcrest.core.StringEndsWith;
 import org.hamcrest.core.StringStartsWith;
@@ -22,9 +40,14 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import com.wbl.dates.Calendar;
+import com.wbl.dates.DayView;
+import com.wbl.dates.Event;
+import com.wbl.dates.RecurringEvent;
 import com.wbl.dates.Schedule;
 import com.wbl.dates.Task;
 import com.wbl.dates.TaskPart;
+import com.wbl.dates.Utils;
+import com.wbl.dates.WorkPattern;
 import com.wbl.dates.WorkPeriod;
 
 public class CalendarTest {
@@ -202,6 +225,61 @@ public class CalendarTest {
         assertEquals(Duration.ofMinutes(30), taskParts.get(1).getDuration());
     }
 
+    @Test
+    public void testRepeatedSchedulingKeepsPartNumbering() {
+        calendar.addTask(new Task(30, "report"));
+        calendar.addWorkPeriod(p20mins);
+        calendar.addWorkPeriod(p30mins);
+
+        for (int i = 0; i < 100; i++) {
+            List<WorkPeriod> schedule = calendar.createSchedule(clock).getScheduledPeriods();
+            assertEquals("report(1/2), 20mins", schedule.get(0).getTaskParts().get(0).toString());
+            assertEquals("report(2/2), 10mins", schedule.get(1).getTaskParts().get(0).toString());
+        }
+    }
+
+    @Test
+    public void testTaskSpansSeveralPeriods() {
+        calendar.addTask(new Task(50, "long"));
+        calendar.addTask(new Task(10, "short"));
+        for (int i = 0; i < 3; i++) {
+            calendar.addWorkPeriod(new WorkPeriod(localSchedStart.plusMinutes(30 * i),
+                    localSchedStart.plusMinutes(30 * i + 20)));
+        }
+        List<WorkPeriod> schedule = calendar.createSchedule(clock).getScheduledPeriods();
+
+        assertEquals(3, schedule.size());
+        assertEquals("[long(1/3), 20mins]", schedule.get(0).getTaskParts().toString());
+        assertEquals("[long(2/3), 20mins]", schedule.get(1).getTaskParts().toString());
+        assertEquals("[long(3/3), 10mins, short, 10mins]", schedule.get(2).getTaskParts().toString());
+    }
+
+    @Test
+    public void testTaskEndingOnPeriodBoundaryLeavesNoEmptyPart() {
+        calendar.addTask(new Task(40, "exact"));
+        calendar.addTask(new Task(20, "next"));
+        calendar.addWorkPeriod(p20mins);
+        calendar.addWorkPeriod(new WorkPeriod(localSchedStart.plusMinutes(30), localSchedStart.plusMinutes(50)));
+        calendar.addWorkPeriod(p30mins);
+        List<WorkPeriod> schedule = calendar.createSchedule(clock).getScheduledPeriods();
+
+        assertEquals(3, schedule.size());
+        assertEquals("[exact(1/2), 20mins]", schedule.get(0).getTaskParts().toString());
+        assertEquals("[exact(2/2), 20mins]", schedule.get(1).getTaskParts().toString());
+        assertEquals("[next, 20mins]", schedule.get(2).getTaskParts().toString());
+    }
+
+    @Test
+    public void testWholeTaskPartsNumberedIndependently() {
+        TaskPart first = TaskPart.wholeOf(t60mins);
+        TaskPart second = TaskPart.wholeOf(t60mins);
+        TaskPart rest = first.split(Duration.ofMinutes(45));
+
+        assertEquals("(1/2), 45mins", first.toString());
+        assertEquals("(2/2), 15mins", rest.toString());
+        assertEquals(", 1hr 0mins", second.toString());
+    }
+
     @Rule
     public final ExpectedException exception = ExpectedException.none();
 
@@ -216,4 +294,557 @@ public class CalendarTest {
         calendar.addWorkPeriod(newPeriod);
     }
 
+    @Test
+    public void testBulkLoadReportsEveryOverlap() {
+        calendar.addWorkPeriod(p20mins);
+        WorkPeriod touching = new WorkPeriod(localSchedStart.plusMinutes(20), localSchedStart.plusMinutes(40));
+        try {
+            calendar.addWorkPeriods(Arrays.asList(p60mins, touching, p30mins));
+            fail("overlapping periods added");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Work Periods cannot overlap:"));
+            assertTrue(e.getMessage().contains(p20mins + "," + touching));
+            assertTrue(e.getMessage().contains(p30mins.toString()) && e.getMessage().contains(p60mins.toString()));
+        }
+        assertEquals(1, calendar.workPeriods.size());
+    }
+
+    @Test
+    public void testBulkLoadReportsPeriodsInsideAnother() {
+        WorkPeriod day = new WorkPeriod(localSchedStart, localSchedStart.plusHours(8));
+        WorkPeriod morning = new WorkPeriod(localSchedStart.plusHours(1), localSchedStart.plusHours(2));
+        WorkPeriod afternoon = new WorkPeriod(localSchedStart.plusHours(5), localSchedStart.plusHours(6));
+        try {
+            calendar.addWorkPeriods(Arrays.asList(afternoon, day, morning));
+            fail("overlapping periods added");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(day + "," + morning));
+            assertTrue(e.getMessage().contains(day + "," + afternoon));
+        }
+
+        // the same periods, with the enclosed ones already in a calendar too large to be rebuilt
+        calendar.addWorkPeriods(Utils.generateWorkPeriods(localSchedStart.toLocalDate().plusDays(7), 20));
+        calendar.addWorkPeriod(morning).addWorkPeriod(afternoon);
+        try {
+            calendar.addWorkPeriods(Collections.singletonList(day));
+            fail("overlapping periods added");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(day + "," + morning));
+            assertTrue(e.getMessage().contains(day + "," + afternoon));
+        }
+    }
+
+    @Test
+    public void testBulkLoadMatchesOneByOne() {
+        List<WorkPeriod> periods = Utils.generateWorkPeriods(localSchedStart.toLocalDate(), 300);
+        List<WorkPeriod> shuffled = new ArrayList<>(periods.subList(2, periods.size()));
+        Collections.shuffle(shuffled, new Random(0));
+        Calendar oneByOne = new Calendar();
+        periods.forEach(oneByOne::addWorkPeriod);
+
+        // a large batch rebuilds the set, a small one is inserted
+        calendar.addWorkPeriods(periods.subList(0, 2)).addWorkPeriods(shuffled);
+        assertEquals(oneByOne.workPeriods.toString(), calendar.workPeriods.toString());
+        calendar = new Calendar().addWorkPeriods(shuffled).addWorkPeriods(periods.subList(0, 2));
+        assertEquals(oneByOne.workPeriods.toString(), calendar.workPeriods.toString());
+    }
+
+    @Test
+    public void testBulkEventsKeepFirstAtSameStart() {
+        ZonedDateTime start = localSchedStart.atZone(clock.getZone());
+        calendar.addEvent(Event.of(start, start.plusHours(1), "existing"));
+        calendar.addEvents(Arrays.asList(Event.of(start.plusHours(2), start.plusHours(3), "later"),
+                Event.of(start, start.plusHours(2), "duplicate"),
+                Event.of(start.plusHours(2), start.plusHours(4), "later duplicate")));
+
+        assertEquals(2, calendar.events.size());
+        assertEquals(Duration.ofHours(1), Duration.between(calendar.events.first().getStartTime(),
+                calendar.events.first().getEndTime()));
+        assertEquals(start.plusHours(3), calendar.events.last().getEndTime());
+    }
+
+    @Test
+    public void testOverlapQueriesMatchScan() {
+        Random random = new Random(1);
+        ZonedDateTime start = localSchedStart.atZone(clock.getZone());
+        calendar.addWorkPeriods(Utils.generateWorkPeriods(localSchedStart.toLocalDate(), 20));
+        List<Event> batch = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            ZonedDateTime eventStart = start.plusMinutes(random.nextInt(20000));
+            Event event = Event.of(eventStart, eventStart.plusMinutes(random.nextInt(1440)), "event " + i);
+            if (i < 100) {
+                batch.add(event);
+            } else if (i < 200 || i >= 300) {
+                calendar.addEvent(event);
+            } else {
+                calendar.events.add(event);
+            }
+            if (i == 150 || i == 250 || i == 399) {
+                // inserted into the index, rebuilt after a direct change, then inserted into again
+                assertOverlapQueriesMatchScan(random, start);
+            }
+            if (i == 150) {
+                calendar.addEvents(batch);
+            }
+        }
+    }
+
+    private void assertOverlapQueriesMatchScan(Random random, ZonedDateTime start) {
+        for (int i = 0; i < 100; i++) {
+            ZonedDateTime from = start.plusMinutes(random.nextInt(21000));
+            ZonedDateTime to = from.plusMinutes(random.nextInt(600));
+            List<Event> expectedEvents = new ArrayList<>();
+            for (Event event : calendar.events) {
+                if (event.getStartTime().isBefore(to) && event.getEndTime().isAfter(from)) {
+                    expectedEvents.add(event);
+                }
+            }
+            assertEquals(expectedEvents, calendar.eventsOverlapping(from, to));
+
+            List<WorkPeriod> expectedPeriods = new ArrayList<>();
+            for (WorkPeriod period : calendar.workPeriods) {
+                if (period.getStartTime().isBefore(to.toLocalDateTime())
+                        && period.getEndTime().isAfter(from.toLocalDateTime())) {
+                    expectedPeriods.add(period);
+                }
+            }
+            assertEquals(expectedPeriods, calendar.periodsOverlapping(from.toLocalDateTime(), to.toLocalDateTime()));
+        }
+    }
+
+    @Test
+    public void testFreeSlotsAfterTasks() {
+        calendar.addTask(t30mins).addTask(t20mins);
+        calendar.addWorkPeriod(p20mins).addWorkPeriod(p60mins);
+        ZonedDateTime eventStart = localSchedStart.plusMinutes(90).atZone(clock.getZone());
+        calendar.addEvent(eventStart, Duration.ofMinutes(10), "call");
+
+        List<WorkPeriod> slots = calendar.freeSlots(localSchedStart, localSchedStart.plusDays(1), Duration.ofMinutes(5),
+                clock).collect(toList());
+
+        // the tasks take all of p20mins and p60mins up to the call
+        assertEquals(1, slots.size());
+        assertEquals(localSchedStart.plusMinutes(100), slots.get(0).getStartTime());
+        assertEquals(p60mins.getEndTime(), slots.get(0).getEndTime());
+    }
+
+    @Test
+    public void testFreeSlotsMatchSchedule() {
+        for (long seed = 0; seed < 100; seed++) {
+            Calendar cal = randomCalendar(seed);
+            Random random = new Random(seed);
+            LocalDateTime from = localSchedStart.plusMinutes(random.nextInt(3000) - 600);
+            LocalDateTime to = from.plusMinutes(random.nextInt(3000));
+            Duration minimum = Duration.ofMinutes(random.nextInt(60));
+
+            List<WorkPeriod> expected = new ArrayList<>();
+            Schedule schedule = cal.createSchedule(clock);
+            int scheduled = 0;
+            for (WorkPeriod free : cal.overwritePeriodsByEvents(clock.getZone())) {
+                LocalDateTime slotStart = free.getStartTime();
+                List<WorkPeriod> periods = schedule.getScheduledPeriods();
+                if (scheduled < periods.size() && periods.get(scheduled).getStartTime().equals(slotStart)) {
+                    for (TaskPart part : periods.get(scheduled++).getTaskParts()) {
+                        slotStart = slotStart.plus(part.getDuration());
+                    }
+                }
+                slotStart = Collections.max(Arrays.asList(slotStart, from, localSchedStart));
+                LocalDateTime slotEnd = Collections.min(Arrays.asList(free.getEndTime(), to));
+                if (slotEnd.isAfter(slotStart) && Duration.between(slotStart, slotEnd).compareTo(minimum) >= 0) {
+                    expected.add(new WorkPeriod(slotStart, slotEnd));
+                }
+            }
+
+            assertEquals("seed " + seed, expected.toString(),
+                    cal.freeSlots(from, to, minimum, clock).collect(toList()).toString());
+        }
+    }
+
+    @Test
+    public void testFreeSlotsStreamFirstOnly() {
+        calendar.addWorkPeriods(Utils.generateWorkPeriods(localSchedStart.toLocalDate(), 1000));
+
+        List<WorkPeriod> slots = calendar.freeSlots(localSchedStart, localSchedStart.plusYears(10),
+                Duration.ofHours(1), clock).limit(3).collect(toList());
+
+        assertEquals(3, slots.size());
+        assertEquals(calendar.workPeriods.first().getStartTime(), slots.get(0).getStartTime());
+    }
+
+    @Test
+    public void testCanScheduleMatchesSchedule() {
+        for (long seed = 0; seed < 100; seed++) {
+            Random random = new Random(seed);
+            Clock now = Clock.offset(clock, Duration.ofMinutes(random.nextInt(1200) - 300));
+            Task extra = new Task(random.nextInt(600), "extra");
+            Calendar cal = randomCalendar(seed);
+            boolean canSchedule = cal.canSchedule(now);
+            boolean canScheduleExtra = cal.canSchedule(now, extra);
+
+            assertEquals("seed " + seed, cal.createSchedule(now).isSuccessful(), canSchedule);
+            assertEquals("seed " + seed, cal.addTask(extra).createSchedule(now).isSuccessful(), canScheduleExtra);
+        }
+    }
+
+    @Test
+    public void testCanScheduleFollowsEvents() {
+        calendar.addTask(t30mins);
+        calendar.addWorkPeriod(p60mins);
+        assertTrue(calendar.canSchedule(clock));
+        assertTrue(calendar.canSchedule(clock, t30mins));
+        assertFalse(calendar.canSchedule(clock, t60mins));
+
+        calendar.addEvent(p60mins.getStartTime().plusMinutes(10).atZone(clock.getZone()), Duration.ofMinutes(45),
+                "");
+        assertFalse(calendar.canSchedule(clock));
+    }
+
+    @Test
+    public void testClockWithFractionOfSecond() {
+        ZoneId london = ZoneId.of("Europe/London");
+        Clock fractional = Clock.fixed(Instant.parse("2026-10-19T07:00:00.123Z"), london);
+        Clock whole = Clock.fixed(Instant.parse("2026-10-19T07:00:00Z"), london);
+        LocalDate monday = LocalDate.of(2026, 10, 19);
+        Calendar cal = new Calendar().addTask(4, 0, "report").addTask(t30mins).addTask(6, 30, "plan");
+        cal.addWorkPeriods(Utils.generateWorkPeriods(monday, 5));
+        cal.addRecurringEvent(RecurringEvent.weekdays(ZonedDateTime.of(monday, LocalTime.of(10, 0), london),
+                Duration.ofMinutes(15), "standup", monday.plusDays(4)));
+
+        assertEquals(cal.createSchedule(whole).toString(), cal.createSchedule(fractional).toString());
+        assertEquals(cal.createSchedule(whole).toString(), cal.createLazySchedule(fractional).toString());
+        LocalDateTime from = LocalDateTime.now(fractional);
+        assertEquals(cal.freeSlots(from, from.plusDays(3), Duration.ofMinutes(5), whole).collect(toList()),
+                cal.freeSlots(from, from.plusDays(3), Duration.ofMinutes(5), fractional).collect(toList()));
+        cal.freeSlots(from, from.plusDays(3), Duration.ofMinutes(5), london).collect(toList());
+        ZonedDateTime now = ZonedDateTime.now(fractional);
+        // the window ends a fraction of a second after Wednesday's standup starts
+        assertEquals(3, cal.eventsOverlapping(now, now.plusDays(2).plusHours(2)).size());
+    }
+
+    @Test
+    public void testIncrementalScheduleAfterAddingEvent() {
+        Calendar incremental = sampleCalendar().enableIncrementalScheduling();
+        incremental.createSchedule(clock);
+        ZonedDateTime meetingStart = localSchedStart.plusDays(3).withHour(10).atZone(clock.getZone());
+        Event event = Event.of(meetingStart, meetingStart.plusHours(2), "meeting");
+        incremental.addEvent(event);
+
+        Calendar full = sampleCalendar().addEvent(event);
+        assertEquals(describe(full.createSchedule(clock)), describe(incremental.createSchedule(clock)));
+    }
+
+    @Test
+    public void testIncrementalScheduleAfterAddingTask() {
+        Calendar incremental = sampleCalendar().enableIncrementalScheduling();
+        incremental.createSchedule(clock);
+        incremental.addTask(2, 15, "late");
+
+        Calendar full = sampleCalendar().addTask(2, 15, "late");
+        assertEquals(describe(full.createSchedule(clock)), describe(incremental.createSchedule(clock)));
+    }
+
+    @Test
+    public void testIncrementalScheduleAfterAddingWorkPeriod() {
+        Calendar incremental = sampleCalendar().enableIncrementalScheduling();
+        incremental.createSchedule(clock);
+        WorkPeriod evening = new WorkPeriod(localSchedStart.plusDays(1).withHour(18), Duration.ofHours(2));
+        incremental.addWorkPeriod(evening);
+
+        Calendar full = sampleCalendar()
+                .addWorkPeriod(new WorkPeriod(evening.getStartTime(), evening.getEndTime()));
+        assertEquals(describe(full.createSchedule(clock)), describe(incremental.createSchedule(clock)));
+    }
+
+    @Test
+    public void testIncrementalScheduleUnchanged() {
+        Calendar incremental = sampleCalendar().enableIncrementalScheduling();
+        List<String> first = describe(incremental.createSchedule(clock));
+        assertEquals(first, describe(incremental.createSchedule(clock)));
+        assertEquals(describe(sampleCalendar().createSchedule(clock)), first);
+    }
+
+    @Test
+    public void testIncrementalScheduleUnaffectedByChangesToReturnedSchedule() {
+        Calendar incremental = sampleCalendar().enableIncrementalScheduling();
+        List<WorkPeriod> periods = incremental.createSchedule(clock).getScheduledPeriods();
+        periods.get(0).getTaskParts().get(0).split(Duration.ofMinutes(5));
+        periods.get(1).addTaskPart(TaskPart.wholeOf(t60mins));
+        periods.get(2).setTaskParts(new ArrayList<>());
+        periods.get(3).split(periods.get(3).getStartTime().plusMinutes(10));
+
+        String expected = sampleCalendar().createSchedule(clock).toString();
+        assertEquals(expected, incremental.createSchedule(clock).toString());
+        incremental.addTask(2, 15, "late");
+        assertEquals(sampleCalendar().addTask(2, 15, "late").createSchedule(clock).toString(),
+                incremental.createSchedule(clock).toString());
+    }
+
+    @Test
+    public void testTimelineScheduleMatchesSchedule() {
+        assertEquals(describe(sampleCalendar().createSchedule(clock)),
+                describe(sampleCalendar().createTimelineSchedule(clock)));
+        for (long seed = 0; seed < 200; seed++) {
+            assertEquals("seed " + seed, describe(randomCalendar(seed).createSchedule(clock)),
+                    describe(randomCalendar(seed).createTimelineSchedule(clock)));
+        }
+    }
+
+    @Test
+    public void testTimelineScheduleSkipsPastPeriods() {
+        // two days in, part way through a work period, at a fraction of a second
+        Instant later = localSchedStart.plusDays(2).withHour(10).withMinute(20).toInstant(ZoneOffset.UTC);
+        Clock midWeek = Clock.fixed(later.plusMillis(500), clock.getZone());
+        assertEquals(describe(sampleCalendar().createSchedule(midWeek)),
+                describe(sampleCalendar().createTimelineSchedule(midWeek)));
+        for (long seed = 0; seed < 50; seed++) {
+            assertEquals("seed " + seed, describe(randomCalendar(seed).createSchedule(midWeek)),
+                    describe(randomCalendar(seed).createTimelineSchedule(midWeek)));
+        }
+    }
+
+    @Test
+    public void testLazyScheduleMatchesSchedule() {
+        assertEquals(sampleCalendar().createSchedule(clock).toString(),
+                sampleCalendar().createLazySchedule(clock).toString());
+        for (long seed = 0; seed < 200; seed++) {
+            Schedule lazy = randomCalendar(seed).createLazySchedule(clock);
+            Schedule schedule = randomCalendar(seed).createSchedule(clock);
+
+            assertEquals("seed " + seed, schedule.isSuccessful(), lazy.isSuccessful());
+            assertEquals("seed " + seed, describe(schedule), describe(lazy));
+        }
+    }
+
+    @Test
+    public void testLazyScheduleStreamsOnDemand() {
+        Calendar cal = sampleCalendar();
+        cal.addWorkPeriods(Utils.generateWorkPeriods(localSchedStart.toLocalDate().plusDays(7), 1000));
+        Schedule lazy = cal.createLazySchedule(clock);
+
+        List<WorkPeriod> firstDay = lazy.stream().limit(2).collect(toList());
+        assertEquals(2, firstDay.size());
+        assertEquals(cal.workPeriods.first().getStartTime(), firstDay.get(0).getStartTime());
+        assertEquals(firstDay, lazy.stream().limit(2).collect(toList()));
+        assertTrue(lazy.isSuccessful());
+        assertEquals(describe(cal.createSchedule(clock)), describe(lazy));
+        assertEquals(lazy.getScheduledPeriods(), lazy.stream().collect(toList()));
+    }
+
+    @Test
+    public void testDaysMatchToString() {
+        for (long seed = 0; seed < 50; seed++) {
+            Schedule schedule = randomCalendar(seed).createSchedule(clock);
+            LocalDate first = localSchedStart.toLocalDate().minusDays(2);
+            StringBuilder byWeek = new StringBuilder();
+            for (LocalDate week = first; week.isBefore(first.plusWeeks(8)); week = week.plusWeeks(1)) {
+                for (DayView day : schedule.slice(week, week.plusWeeks(1)).values()) {
+                    assertEquals(day, schedule.day(day.getDate()).get());
+                    byWeek.append(day);
+                }
+            }
+            if (schedule.isSuccessful()) {
+                assertEquals("seed " + seed, schedule.toString(), byWeek.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testDayReadsOnlyItsDays() {
+        LocalDate today = localSchedStart.toLocalDate();
+        Calendar cal = new Calendar().setWorkPattern(WorkPattern.standard(), today, today.plusYears(10_000));
+        cal.addTask(t60mins);
+        Schedule lazy = cal.createLazySchedule(clock);
+        LocalDate monday = today.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        assertEquals(2, lazy.day(monday).get().getPeriods().size());
+        assertTrue(lazy.day(monday).get().getEvents().isEmpty());
+
+        // events are read from the calendar when the day is asked for
+        cal.addEvent(monday.atTime(10, 0).atZone(clock.getZone()), Duration.ofMinutes(30), "review");
+        DayView day = lazy.day(monday).get();
+        assertEquals(1, day.getEvents().size());
+        assertTrue(day.toString().contains("review"));
+        assertEquals(day, lazy.slice(monday, monday.plusDays(1)).get(monday));
+    }
+
+    @Test
+    public void testWriteToMatchesToString() throws IOException {
+        calendar.addTask(t60mins);
+        StringWriter unsuccessful = new StringWriter();
+        calendar.createSchedule(clock).writeTo(unsuccessful);
+        assertEquals("Schedule unsuccessful: insufficent time for tasks", unsuccessful.toString());
+
+        // a period ending at midnight leaves an empty period at midnight, as splitting it always has
+        calendar.addWorkPeriod(new WorkPeriod(localSchedStart.plusHours(23), localSchedStart.plusHours(24)));
+        calendar.addWorkPeriod(new WorkPeriod(localSchedStart.plusHours(25), localSchedStart.plusHours(26)));
+        Schedule schedule = calendar.createSchedule(clock);
+        StringWriter out = new StringWriter();
+        schedule.writeTo(out);
+
+        assertEquals(schedule.toString(), out.toString());
+        assertEquals(schedule.day(localSchedStart.toLocalDate()).get() + ""
+                + schedule.day(localSchedStart.toLocalDate().plusDays(1)).get(), out.toString());
+        assertEquals(2, schedule.day(localSchedStart.toLocalDate().plusDays(1)).get().getPeriods().size());
+    }
+
+    @Test
+    public void testParallelWriteMatchesToString() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (long seed = 0; seed < 20; seed++) {
+            Schedule schedule = randomCalendar(seed).createSchedule(clock);
+            StringBuilder out = new StringBuilder();
+            schedule.writeTo(out, pool);
+            assertEquals("seed " + seed, schedule.toString(), out.toString());
+        }
+
+        // a long calendar in a zone with DST, with events around midnight, written in many chunks
+        ZoneId london = ZoneId.of("Europe/London");
+        Clock londonClock = Clock.fixed(LocalDate.of(2018, 1, 1).atStartOfDay(london).toInstant(), london);
+        Calendar cal = new Calendar().addWorkPeriods(Utils.generateWorkPeriods(LocalDate.of(2018, 1, 1), 600));
+        Random random = new Random(3);
+        for (int i = 0; i < 400; i++) {
+            ZonedDateTime start = LocalDate.of(2018, 1, 1).plusDays(random.nextInt(800)).atTime(23, 0)
+                    .plusMinutes(30 * random.nextInt(4)).atZone(london);
+            cal.addEvent(start, Duration.ofMinutes(30 * (1 + random.nextInt(6))), "late " + i);
+        }
+        for (int i = 0; i < 200; i++) {
+            cal.addTask(new Task(30 + random.nextInt(600), "task " + i));
+        }
+        Schedule schedule = cal.createSchedule(londonClock);
+        StringBuilder out = new StringBuilder();
+        schedule.writeTo(out, pool);
+        assertEquals(schedule.toString(), out.toString());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testDaySplitsAtMidnight() {
+        calendar.addTask(t60mins);
+        calendar.addWorkPeriod(new WorkPeriod(localSchedStart.plusHours(23), localSchedStart.plusHours(25)));
+        calendar.addEvent(localSchedStart.plusHours(26).atZone(clock.getZone()), Duration.ofMinutes(30), "late");
+        Schedule schedule = calendar.createSchedule(clock);
+        LocalDate today = localSchedStart.toLocalDate();
+
+        DayView first = schedule.day(today).get();
+        DayView second = schedule.day(today.plusDays(1)).get();
+        assertEquals(1, first.getPeriods().size());
+        assertEquals(today.plusDays(1).atStartOfDay(), first.getPeriods().get(0).getEndTime());
+        assertEquals(1, second.getPeriods().size());
+        assertTrue(second.getPeriods().get(0).getTaskParts().isEmpty());
+        assertEquals(1, second.getEvents().size());
+        assertEquals(Optional.empty(), schedule.day(today.plusDays(2)));
+        assertEquals(2, schedule.slice(today, today.plusDays(7)).size());
+        assertEquals(1, schedule.slice(today.plusDays(1), today.plusDays(7)).size());
+    }
+
+    @Test
+    public void testTimelineScheduleNowInsidePeriod() {
+        calendar.addTask(t60mins);
+        calendar.addWorkPeriod(new WorkPeriod(localSchedStart.minusMinutes(30), localSchedStart.plusSeconds(30)));
+        calendar.addWorkPeriod(new WorkPeriod(localSchedStart.plusMinutes(30), localSchedStart.plusMinutes(90)));
+
+        Schedule schedule = calendar.createTimelineSchedule(clock);
+
+        assertTrue(schedule.isSuccessful());
+        List<TaskPart> taskParts = schedule.getScheduledPeriods().get(0).getTaskParts();
+        assertEquals(1, taskParts.size());
+        assertEquals(Duration.ofMinutes(60), taskParts.get(0).getDuration());
+    }
+
+    @Test
+    public void testConcurrentSchedulesLeaveSharedCalendarUntouched() throws Exception {
+        List<Calendar> shared = new ArrayList<>();
+        List<List<String>> expectedSchedules = new ArrayList<>();
+        List<String> expectedOutputs = new ArrayList<>();
+        for (long seed = 0; seed < 10; seed++) {
+            shared.add(seed % 2 == 0 ? randomCalendar(seed) : randomCalendar(seed).enableIncrementalScheduling());
+            Schedule reference = randomCalendar(seed).createSchedule(clock);
+            expectedSchedules.add(describe(reference));
+            expectedOutputs.add(reference.toString());
+        }
+        List<String> periodsBefore = new ArrayList<>();
+        for (Calendar cal : shared) {
+            periodsBefore.add(cal.workPeriods.toString());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int iteration = 0; iteration < 25; iteration++) {
+                    for (int i = 0; i < shared.size(); i++) {
+                        Schedule schedule = iteration % 3 == 0
+                                ? shared.get(i).createTimelineSchedule(clock)
+                                : shared.get(i).createSchedule(clock);
+                        assertEquals(expectedSchedules.get(i), describe(schedule));
+                        assertEquals(expectedOutputs.get(i), schedule.toString());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < shared.size(); i++) {
+            assertEquals(periodsBefore.get(i), shared.get(i).workPeriods.toString());
+            assertEquals(expectedSchedules.get(i), describe(shared.get(i).createSchedule(clock)));
+        }
+    }
+
+    // work periods, events and tasks drawn from a seed, so that two calendars built from it are identical
+    private Calendar randomCalendar(long seed) {
+        Random random = new Random(seed);
+        Calendar cal = new Calendar();
+        LocalDateTime periodStart = localSchedStart.minusHours(random.nextInt(12));
+        for (int i = 0; i < 12; i++) {
+            periodStart = periodStart.plusMinutes(1 + random.nextInt(600));
+            LocalDateTime periodEnd = periodStart.plusMinutes(1 + random.nextInt(300));
+            cal.addWorkPeriod(new WorkPeriod(periodStart, periodEnd));
+            periodStart = periodEnd;
+        }
+        ZonedDateTime eventStart = localSchedStart.minusHours(random.nextInt(12)).atZone(clock.getZone());
+        for (int i = 0; i < 15; i++) {
+            eventStart = eventStart.plusMinutes(random.nextInt(400));
+            cal.addEvent(eventStart, Duration.ofMinutes(1 + random.nextInt(240)), "event " + i);
+        }
+        for (int i = 0; i < 1 + random.nextInt(8); i++) {
+            cal.addTask(new Task(10 + 7 * i + random.nextInt(7) * 60, "task " + i));
+        }
+        return cal;
+    }
+
+    private Calendar sampleCalendar() {
+        Calendar cal = new Calendar()
+                .addTask(t60mins)
+                .addTask(4, 0, "report")
+                .addTask(t30mins)
+                .addTask(6, 30, "plan")
+                .addTask(t20mins);
+        cal.addWorkPeriods(Utils.generateWorkPeriods(localSchedStart.toLocalDate(), 5));
+        cal.addEvent(localSchedStart.plusHours(10).atZone(clock.getZone()), Duration.ofMinutes(45), "standup");
+        return cal;
+    }
+
+    private static List<String> describe(Schedule schedule) {
+        List<String> description = new ArrayList<>();
+        description.add("successful: " + schedule.isSuccessful());
+        for (WorkPeriod period : schedule.getScheduledPeriods()) {
+            StringBuilder sb = new StringBuilder(period.getStartTime() + " - " + period.getEndTime());
+            for (TaskPart part : period.getTaskParts()) {
+                // task durations are distinct in the sample calendar, so they identify the owner
+                sb.append(" ").append(part.getOwner().getDuration()).append(":").append(part.getDuration());
+            }
+            description.add(sb.toString());
+        }
+        return description;
+    }
 }
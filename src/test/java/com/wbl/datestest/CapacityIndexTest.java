@@ -0,0 +1,114 @@
+package com.wbl.datestest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.wbl.dates.BusyBitmap;
+import com.wbl.dates.Calendar;
+import com.wbl.dates.CapacityIndex;
+import com.wbl.dates.RecurringEvent;
+import com.wbl.dates.Utils;
+import com.wbl.dates.WorkPeriod;
+
+public class CapacityIndexTest {
+
+    private final ZoneId zone = ZoneOffset.UTC;
+    private LocalDate date;
+    private Calendar calendar;
+
+    /**
+     * Setup Method.
+     */
+    @Before
+    public void setup() {
+        date = LocalDate.of(2018, 5, 21);
+        calendar = new Calendar().addWorkPeriods(Utils.generateWorkPeriods(date, 5));
+        calendar.addEvent(date.atTime(10, 0).atZone(zone), Duration.ofMinutes(30), "standup");
+    }
+
+    @Test
+    public void testSingleDay() {
+        CapacityIndex index = CapacityIndex.of(calendar, zone);
+        LocalDateTime morning = date.atTime(9, 0);
+
+        assertEquals(Duration.ofMinutes(30), index.bookedBetween(morning, morning.plusHours(4)));
+        assertEquals(Duration.ofMinutes(180), index.freeBetween(morning, morning.plusHours(4)));
+        assertEquals(Duration.ofMinutes(120), index.longestFreeGap(morning, morning.plusHours(4)));
+        assertEquals(Duration.ZERO, index.freeBetween(morning, morning));
+    }
+
+    @Test
+    public void testDetachStopsFollowing() {
+        CapacityIndex index = CapacityIndex.of(calendar, zone);
+        LocalDateTime morning = date.atTime(9, 0);
+        index.detach();
+        calendar.addEvent(morning.plusHours(2).atZone(zone), Duration.ofMinutes(30), "after detach");
+
+        assertEquals(Duration.ofMinutes(30), index.bookedBetween(morning, morning.plusHours(4)));
+    }
+
+    @Test
+    public void testFollowsRecurringEvents() {
+        CapacityIndex index = CapacityIndex.of(calendar, zone);
+        LocalDateTime monday = date.atStartOfDay();
+        assertEquals(Duration.ofMinutes(30), index.bookedBetween(monday, monday.plusDays(5)));
+
+        calendar.addRecurringEvent(RecurringEvent.weekdays(date.atTime(16, 0).atZone(zone), Duration.ofMinutes(15),
+                "wrap up", date.plusYears(50)));
+        assertEquals(Duration.ofMinutes(30 + 5 * 15), index.bookedBetween(monday, monday.plusDays(5)));
+        assertEquals(Duration.ofMinutes(15), index.bookedBetween(monday.plusHours(12), monday.plusHours(17)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeEndingBeforeStart() {
+        CapacityIndex.of(calendar, zone).freeBetween(date.atTime(10, 0), date.atTime(9, 0));
+    }
+
+    @Test
+    public void testMatchesMinutesAfterAdds() {
+        CapacityIndex index = CapacityIndex.of(calendar, zone);
+        Random random = new Random(11);
+        for (int i = 0; i < 20; i++) {
+            LocalDateTime start = date.atTime(7, 0).plusMinutes(random.nextInt(5 * 24 * 60));
+            calendar.addEvent(start.atZone(zone), Duration.ofMinutes(1 + random.nextInt(240)), "");
+        }
+        LocalDate weekend = date.plusDays(5);
+        calendar.addWorkPeriod(new WorkPeriod(weekend.atTime(20, 0), weekend.plusDays(1).atTime(4, 0)));
+        calendar.addWorkPeriod(new WorkPeriod(date.minusDays(3).atTime(9, 0), date.minusDays(3).atTime(11, 0)));
+        BusyBitmap bitmap = BusyBitmap.of(calendar, zone);
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime from = date.minusDays(4).atStartOfDay().plusMinutes(random.nextInt(12 * 24 * 60));
+            LocalDateTime to = from.plusMinutes(random.nextInt(6 * 24 * 60));
+            long booked = 0;
+            long free = 0;
+            long run = 0;
+            long longest = 0;
+            for (LocalDateTime minute = from; minute.isBefore(to); minute = minute.plusMinutes(1)) {
+                boolean isFree = bitmap.isFree(minute);
+                free += isFree ? 1 : 0;
+                run = isFree ? run + 1 : 0;
+                longest = Math.max(longest, run);
+                booked += !isFree && isWorking(minute) ? 1 : 0;
+            }
+            assertEquals(Duration.ofMinutes(booked), index.bookedBetween(from, to));
+            assertEquals(Duration.ofMinutes(free), index.freeBetween(from, to));
+            assertEquals(Duration.ofMinutes(longest), index.longestFreeGap(from, to));
+        }
+    }
+
+    private boolean isWorking(LocalDateTime minute) {
+        WorkPeriod period = calendar.workPeriods.floor(new WorkPeriod(minute, minute.plusMinutes(1)));
+        return period != null && !period.getEndTime().isBefore(minute.plusMinutes(1));
+    }
+}
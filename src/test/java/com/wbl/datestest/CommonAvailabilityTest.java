@@ -0,0 +1,111 @@
+package com.wbl.datestest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.threeten.extra.Interval;
+
+import com.wbl.dates.Calendar;
+import com.wbl.dates.CommonAvailability;
+import com.wbl.dates.Utils;
+import com.wbl.dates.WorkPeriod;
+
+public class CommonAvailabilityTest {
+
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private Clock clock;
+    private LocalDate startDate;
+
+    /**
+     * Setup Method.
+     */
+    @Before
+    public void setup() {
+        clock = Clock.fixed(Instant.parse("2018-05-21T00:00:00Z"), ZoneOffset.UTC);
+        startDate = LocalDate.now(clock);
+    }
+
+    @Test
+    public void testOverlapOfTwoZones() {
+        // 9:00 - 17:00 in London and in New York overlap from 13:00 to 16:00 UTC
+        Calendar london = new Calendar().addWorkPeriod(new WorkPeriod(startDate.atTime(9, 0), Duration.ofHours(8)));
+        Calendar newYork = new Calendar().addWorkPeriod(new WorkPeriod(startDate.atTime(9, 0), Duration.ofHours(8)));
+        ZonedDateTime callStart = startDate.atTime(14, 30).atZone(LONDON);
+        london.addEvent(callStart, Duration.ofMinutes(30), "call");
+
+        List<Interval> slots = new CommonAvailability()
+                .add(london, LONDON)
+                .add(newYork, NEW_YORK)
+                .findSlots(clock.instant(), clock.instant().plus(Duration.ofDays(1)), Duration.ofMinutes(20), 5, clock);
+
+        assertEquals(2, slots.size());
+        assertEquals(startDate.atTime(13, 0).toInstant(ZoneOffset.UTC), slots.get(0).getStart());
+        assertEquals(callStart.toInstant(), slots.get(0).getEnd());
+        assertEquals(callStart.plusMinutes(30).toInstant(), slots.get(1).getStart());
+        assertEquals(startDate.atTime(17, 0).atZone(LONDON).toInstant(), slots.get(1).getEnd());
+    }
+
+    @Test
+    public void testMatchesPairwiseIntersection() {
+        Random random = new Random(3);
+        CommonAvailability availability = new CommonAvailability();
+        List<List<Interval>> free = new ArrayList<>();
+        Instant from = clock.instant();
+        Instant to = from.plus(Duration.ofDays(20));
+        for (int i = 0; i < 6; i++) {
+            ZoneId zone = ZoneOffset.ofHours(random.nextInt(7) - 3);
+            Calendar calendar = new Calendar().addWorkPeriods(Utils.generateWorkPeriods(startDate, 15));
+            for (int e = 0; e < 40; e++) {
+                ZonedDateTime eventStart = startDate.atTime(8, 0).atZone(zone).plusMinutes(random.nextInt(20000));
+                calendar.addEvent(eventStart, Duration.ofMinutes(15 + random.nextInt(120)), "event");
+            }
+            calendar.addTask(random.nextInt(8), 0, "task");
+            availability.add(calendar, zone);
+            List<Interval> slots = new ArrayList<>();
+            calendar.freeSlots(LocalDateTime.ofInstant(from, zone), LocalDateTime.ofInstant(to, zone),
+                    Duration.ZERO, clock.withZone(zone)).forEach(slot -> slots.add(slot.toInterval(zone)));
+            free.add(slots);
+        }
+
+        List<Interval> common = free.get(0);
+        for (List<Interval> slots : free.subList(1, free.size())) {
+            List<Interval> intersection = new ArrayList<>();
+            for (Interval first : common) {
+                for (Interval second : slots) {
+                    Instant start = first.getStart().isAfter(second.getStart()) ? first.getStart() : second.getStart();
+                    Instant end = first.getEnd().isBefore(second.getEnd()) ? first.getEnd() : second.getEnd();
+                    if (start.isBefore(end)) {
+                        intersection.add(Interval.of(start, end));
+                    }
+                }
+            }
+            common = intersection;
+        }
+        List<Interval> expected = new ArrayList<>();
+        for (Interval slot : common) {
+            if (expected.size() < 10 && slot.toDuration().compareTo(Duration.ofMinutes(30)) >= 0) {
+                expected.add(slot);
+            }
+        }
+
+        assertTrue(expected.size() > 1);
+        assertEquals(expected, availability.findSlots(from, to, Duration.ofMinutes(30), 10, clock));
+    }
+}
@@ -216,4 +216,37 @@ public class EventPeriodCombinerTest {
         assertEquals(startLocalDate.atTime(2, 0), per.getStartTime());
         assertEquals(startLocalDate.atTime(3, 0), per.getEndTime());
     }
+
+    @Test
+    public void testSeveralEventsInPeriodLeaveCalendarUntouched() {
+        calendar.addEvent(Event.of(startZDateTime.withHour(2), startZDateTime.withHour(3), ""));
+        calendar.addEvent(Event.of(startZDateTime.withHour(4), startZDateTime.withHour(5), ""));
+        calendar.addWorkPeriod(new WorkPeriod(startLocalDate.atTime(1, 0), startLocalDate.atTime(6, 0)));
+        calendar.addWorkPeriod(new WorkPeriod(startLocalDate.atTime(7, 0), startLocalDate.atTime(8, 0)));
+        String periodsBefore = calendar.workPeriods.toString();
+
+        NavigableSet<WorkPeriod> combined = calendar.overwritePeriodsByEvents(clock.getZone());
+
+        assertEquals(4, combined.size());
+        assertEquals(startLocalDate.atTime(1, 0), combined.pollFirst().getStartTime());
+        WorkPeriod per = combined.pollFirst();
+        assertEquals(startLocalDate.atTime(3, 0), per.getStartTime());
+        assertEquals(startLocalDate.atTime(4, 0), per.getEndTime());
+        assertEquals(startLocalDate.atTime(5, 0), combined.pollFirst().getStartTime());
+        assertEquals(startLocalDate.atTime(7, 0), combined.pollFirst().getStartTime());
+        assertEquals(periodsBefore, calendar.workPeriods.toString());
+    }
+
+    @Test
+    public void testAlternatingZones() {
+        ZoneOffset east = ZoneOffset.ofHours(2);
+        calendar.addEvent(Event.of(startZDateTime.withHour(2), startZDateTime.withHour(3), ""));
+        calendar.addWorkPeriod(new WorkPeriod(startLocalDate.atTime(1, 0), startLocalDate.atTime(6, 0)));
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(startLocalDate.atTime(2, 0), calendar.overwritePeriodsByEvents(clock.getZone()).first()
+                    .getEndTime());
+            assertEquals(startLocalDate.atTime(4, 0), calendar.overwritePeriodsByEvents(east).first().getEndTime());
+        }
+    }
 }
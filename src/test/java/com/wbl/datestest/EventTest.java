@@ -0,0 +1,73 @@
+package com.wbl.datestest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.wbl.dates.Event;
+
+public class EventTest {
+
+    private final ZonedDateTime start = ZonedDateTime.of(2018, 5, 22, 9, 30, 15, 0, ZoneId.of("America/New_York"));
+
+    @Test
+    public void testKeepsZoneAndTimes() {
+        Event event = new Event(start, Duration.ofMinutes(45), "call");
+
+        assertEquals(start, event.getStartTime());
+        assertEquals(start.plusMinutes(45), event.getEndTime());
+        assertEquals(LocalDateTime.of(2018, 5, 22, 13, 30, 15), event.getLocalStartDateTime(ZoneOffset.UTC));
+        assertEquals(LocalDateTime.of(2018, 5, 22, 14, 15, 15), event.getLocalEndDateTime(ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testTimesKeptToTheSecond() {
+        Event event = Event.of(start.withNano(999_000_000), start.plusHours(1), "call");
+
+        assertEquals(start, event.getStartTime());
+    }
+
+    @Test
+    public void testEndTruncatedToTheSecond() {
+        Event event = new Event(start.withNano(600_000_000), Duration.ofMinutes(45).plusMillis(500), "call");
+
+        assertEquals(start, event.getStartTime());
+        assertEquals(start.plusMinutes(45).plusSeconds(1), event.getEndTime());
+    }
+
+    @Test
+    public void testOrderedByStartInstant() {
+        TreeSet<Event> events = new TreeSet<>();
+        Event later = Event.of(start.withZoneSameInstant(ZoneOffset.UTC).plusSeconds(1), start.plusHours(1), "");
+        Event earlier = Event.of(start, start.plusHours(1), "");
+        events.add(later);
+        events.add(earlier);
+
+        assertEquals(earlier, events.first());
+        assertFalse(events.add(Event.of(start.withZoneSameInstant(ZoneOffset.UTC), start.plusHours(2), "")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLongerThanADay() {
+        Event.of(start, start.plusDays(1).plusSeconds(1), "");
+    }
+
+    @Test
+    public void testSplitAtMidnight() {
+        Event event = Event.of(start.withHour(23), start.withHour(23).plusHours(2), "late");
+
+        assertTrue(event.split(start.getZone()).isPresent());
+        assertEquals(start.toLocalDate().plusDays(1).atStartOfDay(start.getZone()), event.getEndTime());
+        assertFalse(event.split(start.getZone()).isPresent());
+    }
+}
@@ -0,0 +1,79 @@
+package com.wbl.datestest;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.wbl.dates.BusinessCalendar;
+import com.wbl.dates.Calendar;
+import com.wbl.dates.Event;
+import com.wbl.dates.Recurrence;
+import com.wbl.tasks.TemporalAdj;
+
+public class RecurrenceTest {
+
+    private final LocalDate start = LocalDate.of(2018, 3, 20);
+
+    @Test
+    public void testOccurrencesMatchStepping() {
+        BusinessCalendar business = new BusinessCalendar(Arrays.asList(LocalDate.of(2018, 12, 25),
+                LocalDate.of(2019, 1, 1), LocalDate.of(2019, 4, 19)));
+        for (Recurrence rule : Arrays.asList(Recurrence.daily(), Recurrence.weekly(DayOfWeek.TUESDAY,
+                DayOfWeek.SUNDAY), Recurrence.businessDays(business), Recurrence.firstInMonth(DayOfWeek.MONDAY),
+                Recurrence.lastInMonth(DayOfWeek.FRIDAY), Recurrence.monthly(TemporalAdjusters.lastDayOfMonth()))) {
+            List<LocalDate> stepped = new ArrayList<>();
+            LocalDate date = start.minusDays(1);
+            for (int i = 0; i < 400; i++) {
+                date = date.with(rule);
+                stepped.add(date);
+            }
+            assertEquals(stepped.get(0), rule.occurrence(start, 0));
+            assertEquals(stepped.get(399), rule.occurrence(start, 399));
+            assertEquals(stepped.get(398), rule.occurrence(stepped.get(399), -1));
+            assertEquals(stepped.subList(100, 300), rule.between(stepped.get(100), stepped.get(300)).collect(toList()));
+            assertEquals(200, rule.count(stepped.get(100), stepped.get(300)));
+        }
+    }
+
+    @Test
+    public void testReviewsFoundDirectly() {
+        LocalDateTime reviewStart = start.atTime(10, 0);
+        ZoneId zone = ZoneId.of("Europe/London");
+        List<Event> reviews = TemporalAdj.generateReviews(reviewStart, 600, Duration.ofHours(1), zone);
+
+        assertEquals(LocalDate.of(2018, 4, 2), reviews.get(1).getStartTime().toLocalDate());
+        assertEquals(reviews.get(599).getStartTime(),
+                TemporalAdj.review(reviewStart, 599, Duration.ofHours(1), zone).getStartTime());
+        List<LocalDate> in2031 = Recurrence.firstInMonth(DayOfWeek.MONDAY)
+                .between(LocalDate.of(2031, 1, 1), LocalDate.of(2032, 1, 1))
+                .collect(toList());
+        assertEquals(12, in2031.size());
+        assertEquals(LocalDate.of(2031, 1, 6), in2031.get(0));
+
+        // a start before the month's first Monday still leaves the next review to the month after
+        LocalDateTime early = LocalDateTime.of(2018, 3, 1, 10, 0);
+        Calendar calendar = new Calendar().addRecurringEvent(TemporalAdj.reviews(early, LocalDate.of(2070, 1, 1),
+                Duration.ofHours(1), zone));
+        List<Event> expected = TemporalAdj.generateReviews(early, 600, Duration.ofHours(1), zone);
+        ZonedDateTime from = expected.get(590).getStartTime();
+        List<Event> found = calendar.eventsOverlapping(from, expected.get(599).getEndTime());
+        assertEquals(10, found.size());
+        assertEquals(from, found.get(0).getStartTime());
+        assertEquals(expected.get(599).getStartTime(), found.get(9).getStartTime());
+        assertEquals(expected.get(1).getStartTime(),
+                calendar.eventsOverlapping(expected.get(0).getEndTime(), from).get(0).getStartTime());
+    }
+}
@@ -0,0 +1,112 @@
+package com.wbl.datestest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.wbl.dates.Calendar;
+import com.wbl.dates.Event;
+import com.wbl.dates.RecurringEvent;
+import com.wbl.dates.Schedule;
+import com.wbl.dates.Task;
+import com.wbl.dates.Utils;
+import com.wbl.tasks.TemporalAdj;
+
+public class RecurringEventTest {
+
+    private final ZoneId london = ZoneId.of("Europe/London");
+    private final LocalDateTime standupStart = LocalDateTime.of(2018, 3, 20, 9, 45);
+    private final Duration standupLength = Duration.ofMinutes(15);
+    private Clock clock;
+    private Calendar expanded;
+    private Calendar recurring;
+
+    /**
+     * Setup Method.
+     */
+    @Before
+    public void setup() {
+        clock = Clock.fixed(LocalDate.of(2018, 3, 20).atStartOfDay(london).toInstant(), london);
+        expanded = new Calendar();
+        recurring = new Calendar();
+        for (Calendar calendar : new Calendar[] {expanded, recurring}) {
+            calendar.addWorkPeriods(Utils.generateWorkPeriods(standupStart.toLocalDate(), 60));
+            for (int i = 0; i < 40; i++) {
+                calendar.addTask(new Task(1, 10 + i % 7 * 10, "task " + i));
+            }
+        }
+    }
+
+    @Test
+    public void testScheduleMatchesExpandedStandups() {
+        List<Event> standups = Utils.generateStandups(standupStart, 60, standupLength, london);
+        LocalDate lastDate = standups.get(standups.size() - 1).getStartTime().toLocalDate();
+        expanded.addEvents(standups);
+        recurring.addRecurringEvent(RecurringEvent.weekdays(ZonedDateTime.of(standupStart, london), standupLength,
+                "standup", lastDate));
+
+        Schedule expected = expanded.createSchedule(clock);
+        assertTrue(expected.isSuccessful());
+        assertEquals(expected.toString(), recurring.createSchedule(clock).toString());
+        assertEquals(expected.toString(), recurring.createLazySchedule(clock).toString());
+        assertEquals(expected.toString(), recurring.createTimelineSchedule(clock).toString());
+        assertEquals(expanded.overwritePeriodsByEvents(london), recurring.overwritePeriodsByEvents(london));
+        assertEquals(expanded.canSchedule(clock), recurring.canSchedule(clock));
+    }
+
+    @Test
+    public void testReviewsMatchGenerateReviews() {
+        List<Event> reviews = TemporalAdj.generateReviews(standupStart, 12, Duration.ofHours(1), london);
+        LocalDate lastDate = reviews.get(reviews.size() - 1).getStartTime().toLocalDate();
+        recurring.addRecurringEvent(TemporalAdj.reviews(standupStart, lastDate, Duration.ofHours(1), london));
+
+        List<Event> occurrences = recurring.eventsOverlapping(ZonedDateTime.of(standupStart, london),
+                ZonedDateTime.of(lastDate.plusDays(1).atStartOfDay(), london));
+        assertEquals(reviews.size(), occurrences.size());
+        for (int i = 0; i < reviews.size(); i++) {
+            assertEquals(reviews.get(i).getStartTime(), occurrences.get(i).getStartTime());
+            assertEquals(reviews.get(i).getEndTime(), occurrences.get(i).getEndTime());
+        }
+    }
+
+    @Test
+    public void testExceptionsAndEventsReplaceOccurrences() {
+        ZonedDateTime first = ZonedDateTime.of(standupStart, london);
+        LocalDate holiday = standupStart.toLocalDate().plusDays(1);
+        recurring.addRecurringEvent(RecurringEvent.daily(first, standupLength, "standup", holiday.plusDays(1))
+                .except(holiday));
+        recurring.addEvent(first.plusDays(2), Duration.ofHours(1), "offsite");
+
+        List<Event> occurrences = recurring.eventsOverlapping(first, first.plusDays(3));
+        assertEquals(2, occurrences.size());
+        assertEquals(first, occurrences.get(0).getStartTime());
+        assertEquals(first.plusDays(2).plusHours(1), occurrences.get(1).getEndTime());
+    }
+
+    @Test
+    public void testCeilingSkipsToOccurrence() {
+        ZonedDateTime first = ZonedDateTime.of(standupStart, london);
+        RecurringEvent weekly = RecurringEvent.weekly(first, standupLength, "sync", LocalDate.of(2040, 1, 1));
+        RecurringEvent weekdays = RecurringEvent.weekdays(first, standupLength, "standup", LocalDate.of(2040, 1, 1));
+
+        // the clocks go back on 28 October 2035, a Sunday
+        assertEquals(ZonedDateTime.of(2035, 10, 30, 9, 45, 0, 0, london),
+                weekly.ceiling(ZonedDateTime.of(2035, 10, 24, 9, 46, 0, 0, london)).getStartTime());
+        assertEquals(ZonedDateTime.of(2035, 10, 29, 9, 45, 0, 0, london),
+                weekdays.ceiling(ZonedDateTime.of(2035, 10, 26, 9, 46, 0, 0, london)).getStartTime());
+        assertEquals(first, weekdays.ceiling(first.minusYears(1)).getStartTime());
+        assertNull(weekly.ceiling(ZonedDateTime.of(2040, 1, 1, 0, 0, 0, 0, london)));
+    }
+}
@@ -32,4 +32,14 @@ public class UtilsTest {
                         .distinct()
                         .collect(toList()));
     }
+
+    @Test
+    public void testWorkingDaysMatchStepping() {
+        LocalDate saturday = LocalDate.of(2018, 3, 24);
+        List<LocalDate> stepped = Utils.generateWorkingDays_alternative_implementation(saturday.plusDays(2), 5000);
+
+        assertEquals(stepped, Utils.workingDays(saturday, 5000).collect(toList()));
+        assertEquals(stepped, Utils.workingDays(saturday, 5000).parallel().collect(toList()));
+        assertEquals(5000, Utils.workingDays(saturday, 5000).spliterator().getExactSizeIfKnown());
+    }
 }
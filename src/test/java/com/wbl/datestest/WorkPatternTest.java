@@ -0,0 +1,101 @@
+package com.wbl.datestest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.wbl.dates.Calendar;
+import com.wbl.dates.Schedule;
+import com.wbl.dates.Task;
+import com.wbl.dates.Utils;
+import com.wbl.dates.WorkPattern;
+import com.wbl.dates.WorkPeriod;
+
+public class WorkPatternTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final ZoneId london = ZoneId.of("Europe/London");
+    private final LocalDate firstDate = LocalDate.of(2018, 3, 20);
+    private Clock clock;
+
+    /**
+     * Setup Method.
+     */
+    @Before
+    public void setup() {
+        clock = Clock.fixed(firstDate.atStartOfDay(london).toInstant(), london);
+    }
+
+    @Test
+    public void testScheduleMatchesGeneratedPeriods() {
+        List<WorkPeriod> periods = Utils.generateWorkPeriods(firstDate, 40);
+        LocalDate lastDate = periods.get(periods.size() - 1).getStartTime().toLocalDate();
+        Calendar generated = new Calendar().addWorkPeriods(periods);
+        Calendar patterned = new Calendar().setWorkPattern(WorkPattern.standard(), firstDate, lastDate);
+        for (Calendar calendar : new Calendar[] {generated, patterned}) {
+            for (int i = 0; i < 40; i++) {
+                calendar.addTask(new Task(2, 10 + i % 5 * 10, "task " + i));
+            }
+            calendar.addEvent(ZonedDateTime.of(firstDate.plusDays(1).atTime(11, 0), london), Duration.ofHours(3), "");
+        }
+
+        Schedule expected = generated.createSchedule(clock);
+        assertTrue(expected.isSuccessful());
+        assertEquals(expected.toString(), patterned.createSchedule(clock).toString());
+        assertEquals(expected.toString(), patterned.createLazySchedule(clock).toString());
+        assertEquals(expected.toString(), patterned.createTimelineSchedule(clock).toString());
+        assertEquals(generated.overwritePeriodsByEvents(london), patterned.overwritePeriodsByEvents(london));
+        LocalDateTime from = firstDate.plusDays(6).atTime(12, 0);
+        assertEquals(generated.periodsOverlapping(from, from.plusDays(2)),
+                patterned.periodsOverlapping(from, from.plusDays(2)));
+    }
+
+    @Test
+    public void testLongHorizonIsMadeOnDemand() {
+        WorkPattern nights = new WorkPattern()
+                .withShift(LocalTime.of(22, 0), Duration.ofHours(8), DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+        Calendar calendar = new Calendar().setWorkPattern(nights, firstDate, firstDate.plusYears(200));
+
+        LocalDateTime from = LocalDateTime.of(2150, 6, 1, 0, 0);
+        List<WorkPeriod> overlapping = calendar.periodsOverlapping(from, from.plusDays(7));
+        assertEquals(3, overlapping.size());
+        assertEquals(LocalDateTime.of(2150, 6, 1, 6, 0), overlapping.get(0).getEndTime());
+        assertEquals(LocalDateTime.of(2150, 6, 7, 22, 0), overlapping.get(2).getStartTime());
+
+        calendar.addTask(new Task(9, 0, "inventory"));
+        assertTrue(calendar.createLazySchedule(clock).isSuccessful());
+    }
+
+    @Test
+    public void testShiftsCannotTouch() {
+        thrown.expect(IllegalArgumentException.class);
+        new WorkPattern()
+                .withShift(LocalTime.of(22, 0), Duration.ofHours(4), DayOfWeek.SUNDAY)
+                .withShift(LocalTime.of(2, 0), Duration.ofHours(4), DayOfWeek.MONDAY);
+    }
+
+    @Test
+    public void testWorkPeriodCannotOverlapPattern() {
+        Calendar calendar = new Calendar().setWorkPattern(WorkPattern.standard(), firstDate, firstDate.plusDays(7));
+
+        thrown.expect(IllegalArgumentException.class);
+        calendar.addWorkPeriod(new WorkPeriod(firstDate.atTime(12, 30), firstDate.atTime(13, 0)));
+    }
+}
@@ -129,6 +129,38 @@ public class WorkPeriodTest {
         assertTrue(per.getEndTime().equals(per.getStartTime()));
     }
 
+    @Test
+    public void testSplitOnEndTimeKeepsEveryPart() {
+        WorkPeriod per = new WorkPeriod(startLocalDate.atTime(22, 0), startLocalDate.atTime(23, 0));
+        TaskPart tp1 = TaskPart.wholeOf(new Task(0, 30, ""));
+        TaskPart tp2 = TaskPart.wholeOf(new Task(0, 30, ""));
+        per.addTaskPart(tp1);
+        per.addTaskPart(tp2);
+        Optional<WorkPeriod> split = per.split(startLocalDate.atTime(23, 0));
+
+        WorkPeriod expectedFirstHalf = new WorkPeriod(startLocalDate.atTime(22, 0), startLocalDate.atTime(23, 0));
+        expectedFirstHalf.addTaskPart(tp1);
+        expectedFirstHalf.addTaskPart(tp2);
+        assertEquals(Optional.of(expectedFirstHalf), split);
+        assertTrue(per.getTaskParts().isEmpty());
+    }
+
+    @Test
+    public void testSplitAfterLastPartLeavesNoEmptyPart() {
+        LocalDateTime startTime = startLocalDate.atTime(22, 0);
+        WorkPeriod per = new WorkPeriod(startTime, startTime.plusHours(2));
+        Task tk = new Task(0, 40, "");
+        TaskPart tp = TaskPart.wholeOf(tk);
+        per.addTaskPart(tp);
+        Optional<WorkPeriod> split = per.split(startTime.plusHours(1));
+
+        WorkPeriod expectedFirstHalf = new WorkPeriod(startTime, startTime.plusHours(1));
+        expectedFirstHalf.addTaskPart(tp);
+        assertEquals(Optional.of(expectedFirstHalf), split);
+        assertEquals(new WorkPeriod(startTime.plusHours(1), startTime.plusHours(2)), per);
+        assertEquals(", 40mins", tp.toString());
+    }
+
     @Test
     public void testSplitOnStartTime() {
         WorkPeriod per = new WorkPeriod(startLocalDate.atTime(22, 0), startLocalDate.atTime(23, 0));